@@ -3,8 +3,8 @@ package com.voipfuture.connectfour;
 import org.apache.commons.lang3.Validate;
 
 import java.util.Arrays;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -20,9 +20,55 @@ public class Board
 {
     public final int width;
     public final int height;
+    /**
+     * Number of tiles in a row (horizontally, vertically or diagonally) that are needed to win the game.
+     */
+    public final int winLength;
+    /**
+     * Line tables of this board's size.
+     */
+    public final BoardGeometry geometry;
     private int tileCount;
 
-    private final Player[] tiles;
+    /**
+     * Tile code of an empty tile.
+     *
+     * @see #getCode(int, int)
+     */
+    public static final int EMPTY = 0;
+
+    // tile codes, EMPTY or (index into 'players')+1
+    private final byte[] tiles;
+
+    /*
+     * Bitboard representation.
+     *
+     * Each column occupies (height+1) consecutive bits, starting with the bottom row at the
+     * least significant bit of the column. The top-most bit of each column is a sentinel that is
+     * never set, so shifting a mask never carries a line of tiles from one column into the next.
+     * Boards with more than 64 bits use multiple words per player, least significant word first.
+     */
+    private final int words;
+    // players owning the tiles, index into this array is the index into 'bitboards' and the tile code minus one
+    private final Player[] players = new Player[2];
+    // bitboard of the first player followed by the bitboard of the second player, 'words' longs each
+    private final long[] bitboards;
+    // scratch space for multi-word win detection
+    private final long[] runs;
+    // bottom bit of every column, only used for single-word boards
+    private final long bottomMask;
+    // number of tiles stacked without gaps on top of the bottom row, per column
+    private final int[] heights;
+
+    // Zobrist keys shared by all boards, two keys (one per player) for each tile offset
+    private static volatile long[] ZOBRIST_KEYS = new long[0];
+
+    private final long[] zobristKeys;
+    private long hash;
+
+    // tile offsets of all moves made through makeMove() that have not been undone yet
+    private final int[] moveStack;
+    private int moveCount;
 
     /**
      * State at the end of a game.
@@ -74,58 +120,100 @@ public class Board
         }
     }
 
-    private static final class Counter
+    /**
+     * Outcome of inserting a tile.
+     *
+     * @author tobias.gierke@voipfuture.com
+     * @see #moveAndCheck(int, Player)
+     */
+    public static final class MoveResult
     {
-        private Player tile;
-        private int count;
+        /**
+         * The player that made the move.
+         */
+        public final Player player;
+
+        /**
+         * The row (y-position) where the new tile got inserted or -1 if the column did not accept any more tiles.
+         */
+        public final int row;
+
+        /**
+         * <code>true</code> if the move completed {@link #winLength} tiles in a row.
+         */
+        public final boolean isWin;
+
+        /**
+         * <code>true</code> if the move filled the last free tile without winning the game.
+         */
+        public final boolean isDraw;
+
+        private MoveResult(Player player, int row, boolean isWin, boolean isDraw)
+        {
+            this.player = player;
+            this.row = row;
+            this.isWin = isWin;
+            this.isDraw = isDraw;
+        }
 
-        public void reset(Player startingTile) {
-            tile = startingTile;
-            count = startingTile == null ? 0 : 1;
+        /**
+         * Returns whether this move ended the game.
+         *
+         * @return
+         */
+        public boolean isGameOver() {
+            return isWin || isDraw;
         }
 
         @Override
         public String toString()
         {
-            return "Counter[ count="+count+", tile="+tile+"]";
+            return "MoveResult[ player="+player+", row="+row+", isWin="+isWin+", isDraw="+isDraw+"]";
         }
+    }
 
-        public boolean hasWon(Player currentTile)
-        {
-            if ( currentTile == null ) {
-                reset(null);
-                return false;
-            }
-            if ( tile == null || ! Objects.equals(tile, currentTile ) )
-            {
-                reset(currentTile);
-            }
-            else
-            {
-                count++;
-                if ( count == 4 )
-                {
-                    return true;
-                }
-            }
-            return false;
-        }
+    /**
+     * Creates a new, empty this.where four tiles in a row win.
+     *
+     * @param width Width in tiles, must be at least 4
+     * @param height Height in tiles, must be at least 4
+     */
+    public Board(int width,int height)
+    {
+        this( width, height, 4 );
     }
-    
+
     /**
      * Creates a new, empty this.
      *
-     * @param width Width in tiles, must be at least 5
-     * @param height Height in tiles, must be at least 5
+     * @param width Width in tiles, must be at least 4
+     * @param height Height in tiles, must be at least 4
+     * @param winLength Number of tiles in a row needed to win, must be at least 2 and must fit on the board
      */
-    public Board(int width,int height)
+    public Board(int width,int height,int winLength)
     {
         if ( width < 4 || height < 4 ) {
             throw new IllegalArgumentException( "Board must be at least 4x4 tiles big" );
         }
+        if ( winLength < 2 || winLength > Math.max( width, height ) ) {
+            throw new IllegalArgumentException( "Win length must be at least 2 and must not exceed the board's width or height" );
+        }
         this.width = width;
         this.height = height;
-        this.tiles = new Player[width*height];
+        this.winLength = winLength;
+        this.geometry = BoardGeometry.of( width, height, winLength );
+        this.tiles = new byte[width*height];
+        this.words = (width*(height+1)+63)/64;
+        this.bitboards = new long[2*words];
+        this.runs = new long[words];
+        long bottom = 0;
+        for ( int x = 0 ; words == 1 && x < width ; x++ ) {
+            bottom |= 1L << x*(height+1);
+        }
+        this.bottomMask = bottom;
+        this.heights = new int[width];
+        this.zobristKeys = zobristKeys( 2*width*height );
+        this.moveStack = new int[width*height];
     }
 
     /**
@@ -140,9 +228,47 @@ public class Board
         Validate.notNull( other, "this.must not be null" );
         this.width = other.width;
         this.height = other.height;
+        this.winLength = other.winLength;
+        this.geometry = other.geometry;
         this.tileCount = other.tileCount;
-        this.tiles = new Player[ other.tiles.length ];
-        System.arraycopy( other.tiles,0,this.tiles,0,other.tiles.length );
+        this.tiles = other.tiles.clone();
+        this.words = other.words;
+        this.players[0] = other.players[0];
+        this.players[1] = other.players[1];
+        this.bitboards = other.bitboards.clone();
+        this.runs = new long[words];
+        this.bottomMask = other.bottomMask;
+        this.heights = other.heights.clone();
+        this.zobristKeys = other.zobristKeys;
+        this.hash = other.hash;
+        this.moveStack = other.moveStack.clone();
+        this.moveCount = other.moveCount;
+    }
+
+    private static long[] zobristKeys(int count)
+    {
+        long[] keys = ZOBRIST_KEYS;
+        if ( keys.length < count )
+        {
+            synchronized( Board.class )
+            {
+                keys = ZOBRIST_KEYS;
+                if ( keys.length < count )
+                {
+                    // keys only depend on their index so hash values stay the same across JVM runs
+                    keys = new long[ count ];
+                    for ( int i = 0 ; i < count ; i++ )
+                    {
+                        long z = (i+1) * 0x9E3779B97F4A7C15L;
+                        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+                        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+                        keys[i] = z ^ (z >>> 31);
+                    }
+                    ZOBRIST_KEYS = keys;
+                }
+            }
+        }
+        return keys;
     }
 
     /**
@@ -153,7 +279,37 @@ public class Board
      */
     public boolean hasSpaceInColumn(int x)
     {
-        return get(x,0) == null;
+        return heights[x] < height;
+    }
+
+    /**
+     * Returns the number of tiles in a given column, counting upwards from the bottom row
+     * up to (but excluding) the first free tile.
+     *
+     * @param x column x position (first column has index 0)
+     * @return column height, the next tile inserted into this column will end up in row <code>height - 1 - columnHeight(x)</code>
+     */
+    public int columnHeight(int x)
+    {
+        return heights[x];
+    }
+
+    /**
+     * Stores the indices of all columns that accept at least one more tile in the given array.
+     *
+     * @param columns array to store the column indices in, needs to have at least {@link #width} elements
+     * @return number of column indices written to the array (in ascending order)
+     */
+    public int playableColumns(int[] columns)
+    {
+        int count = 0;
+        for ( int x = 0 ; x < width ; x++ )
+        {
+            if ( heights[x] < height ) {
+                columns[count++] = x;
+            }
+        }
+        return count;
     }
 
     /**
@@ -166,15 +322,124 @@ public class Board
     public int move(int column,Player player)
     {
         Validate.notNull( player, "player must not be null" );
-        for ( int y = height-1 ; y >= 0 ; y-- )
+        final int row = heights[column];
+        if ( row == height ) {
+            return -1;
+        }
+        final int y = height - 1 - row;
+        set(column,y,player);
+        return y;
+    }
+
+    /**
+     * Inserts a new tile belonging to a given player into the specified column and remembers the move
+     * so that it can be taken back using {@link #undoMove()}.
+     *
+     * This method does not allocate any memory and is meant to be used when searching the game tree: Apply a move,
+     * evaluate the resulting position and then undo the move again, all on the same board instance.
+     * Tiles added or removed using {@link #set(int, int, Player)}, {@link #clear(int, int)} or {@link #move(int, Player)}
+     * are not recorded, mixing these methods with makeMove()/undoMove() on tiles that are part of the move stack is not supported.
+     *
+     * @param column column where to insert the tile (first column has index 0)
+     * @param player player the tile to insert belongs to
+     * @return the row (y-position) where the new tile got inserted or -1 if the given column does not accept any more tiles
+     * (in which case no move is recorded). The top-most row has index 0.
+     * @see #undoMove()
+     */
+    public int makeMove(int column,Player player)
+    {
+        final int y = move( column, player );
+        if ( y != -1 ) {
+            moveStack[ moveCount++ ] = column + y * width;
+        }
+        return y;
+    }
+
+    /**
+     * Takes back the last move made through {@link #makeMove(int, Player)}.
+     *
+     * @return the column of the move that was taken back
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public int undoMove()
+    {
+        if ( moveCount == 0 ) {
+            throw new IllegalStateException( "No move to undo" );
+        }
+        final int offset = moveStack[ --moveCount ];
+        final int x = offset % width;
+        clear( x, offset / width );
+        return x;
+    }
+
+    /**
+     * Returns the number of moves made through {@link #makeMove(int, Player)} that have not been taken back yet.
+     *
+     * @return
+     */
+    public int moveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Inserts a new tile belonging to a given player into the specified column and checks
+     * whether this move ended the game.
+     *
+     * Only the lines running through the inserted tile are checked, so the outcome is only accurate
+     * if the game was not already over before this move.
+     *
+     * @param column column where to insert the tile (first column has index 0)
+     * @param player player the tile to insert belongs to
+     * @return outcome of the move
+     * @see #move(int, Player)
+     */
+    public MoveResult moveAndCheck(int column,Player player)
+    {
+        final int y = move( column, player );
+        if ( y == -1 ) {
+            return new MoveResult( player, -1, false, false );
+        }
+        final boolean isWin = isWinningTile( column, y );
+        return new MoveResult( player, y, isWin, ! isWin && isFull() );
+    }
+
+    /**
+     * Returns whether the tile at a given location is part of {@link #winLength} tiles in a row belonging to the same player.
+     *
+     * Only the lines running through the given location are checked.
+     *
+     * @param x this.column (first column has index 0)
+     * @param y this.row (first column has index 0)
+     * @return <code>true</code> if the tile at the given location is part of a winning line, <code>false</code> if it isn't or there is no tile at the given location
+     */
+    public boolean isWinningTile(int x,int y)
+    {
+        final int code = getCode( x, y );
+        if ( code == EMPTY ) {
+            return false;
+        }
+        final int n = winLength - 1;
+        return count( x, y, 1, 0, code ) + count( x, y, -1, 0, code ) >= n || // row
+               count( x, y, 0, 1, code ) + count( x, y, 0, -1, code ) >= n || // column
+               count( x, y, 1, 1, code ) + count( x, y, -1, -1, code ) >= n || // diagonal right-down
+               count( x, y, -1, 1, code ) + count( x, y, 1, -1, code ) >= n; // diagonal left-down
+    }
+
+    /*
+     * Counts the number of consecutive tiles with a given code, starting next to (x,y)
+     * and moving in the given direction. Counting stops after winLength-1 tiles.
+     */
+    private int count(int x,int y,int dx,int dy,int code)
+    {
+        int result = 0;
+        for ( int x0 = x + dx, y0 = y + dy ; result < winLength - 1 && x0 >= 0 && x0 < width && y0 >= 0 && y0 < height ; x0 += dx, y0 += dy )
         {
-            if ( isEmpty( column,y ) )
-            {
-                set(column,y,player);
-                return y;
+            if ( tiles[ x0 + y0 * width ] != code ) {
+                break;
             }
+            result++;
         }
-        return -1;
+        return result;
     }
 
     /**
@@ -182,8 +447,57 @@ public class Board
      */
     public void clear()
     {
-        Arrays.fill(this.tiles,null);
+        Arrays.fill(this.tiles,(byte) EMPTY);
+        Arrays.fill(this.heights,0);
+        Arrays.fill(this.bitboards,0);
         this.tileCount = 0;
+        this.hash = 0;
+        this.moveCount = 0;
+    }
+
+    /**
+     * Returns a 64-bit Zobrist hash of the tiles on this board.
+     *
+     * The hash is updated incrementally whenever a tile is added or removed. Boards
+     * with the same tiles (using the same {@link #codeOf(Player) tile codes}) have the same hash.
+     *
+     * @return
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Returns whether this board is small enough for {@link #positionKey(Player)}.
+     *
+     * @return
+     */
+    public boolean hasPositionKey()
+    {
+        return words == 1;
+    }
+
+    /**
+     * Returns a key that uniquely identifies the position from the point of view of a given player.
+     *
+     * Unlike {@link #hash()}, the key does not depend on the tile codes, so a position gets the same key no matter
+     * which player made the first move. Each column uses (height+1) bits of the key, the leftmost column
+     * using the least significant bits. A column holding <code>n</code> tiles has bit <code>n</code> set and the bits
+     * below it set where the given player owns the tile. Only meaningful if all tiles were placed using {@link #move(int, Player)}.
+     *
+     * @param player the player whose point of view to use, usually the player that is to move
+     * @return
+     * @throws IllegalStateException if the board is too large, see {@link #hasPositionKey()}
+     */
+    public long positionKey(Player player)
+    {
+        if ( words != 1 ) {
+            throw new IllegalStateException( "Board is too large for a position key" );
+        }
+        // a player without a code has no tiles on the board yet
+        final int code = codeOf( player );
+        final long own = code == EMPTY ? 0 : bitboards[ code - 1 ];
+        return own + ( bitboards[0] | bitboards[1] ) + bottomMask;
     }
 
     /**
@@ -192,7 +506,7 @@ public class Board
      */
     public Stream<Player> stream()
     {
-        return Stream.of( this.tiles );
+        return IntStream.range( 0, this.tiles.length ).mapToObj( i -> player( this.tiles[i] ) );
     }
 
     /**
@@ -205,6 +519,15 @@ public class Board
         return this.tileCount == this.tiles.length;
     }
 
+    /**
+     * Returns the number of tiles on the this.
+     *
+     * @return
+     */
+    public int tileCount() {
+        return this.tileCount;
+    }
+
     /**
      * Returns whether the this.has no tiles at all.
      *
@@ -222,12 +545,129 @@ public class Board
      * @return Owner of the tile at the given location or <code>null</code> if there is no tile at the given location
      */
     public Player get(int x,int y)
+    {
+        return player( tiles[x +y*width] );
+    }
+
+    /**
+     * Returns the code of the tile at a given location.
+     *
+     * @param x this.column (first column has index 0)
+     * @param y this.row (first column has index 0)
+     * @return {@link #EMPTY} if there is no tile at the given location, otherwise the {@link #codeOf(Player) code} of the player owning the tile
+     */
+    public int getCode(int x,int y)
     {
         return tiles[x +y*width];
     }
 
-    private boolean isEmpty(int x, int y) {
-        return get(x,y) == null;
+    /**
+     * Returns the tile code of a cell.
+     *
+     * @param cell index of the cell, <code>x + y*width</code> as in the tables of {@link #geometry}
+     * @return tile code or {@link #EMPTY}
+     * @see #getCode(int, int)
+     */
+    public int getCode(int cell)
+    {
+        return tiles[cell];
+    }
+
+    /**
+     * Returns the tile code used for a given player.
+     *
+     * Tile codes are 1 and 2 and correspond to the player's index (plus one) in {@link #setPlayers(Player, Player)} or,
+     * if this method was never called, to the order in which the players' tiles were first put on this board.
+     *
+     * @param player
+     * @return tile code or {@link #EMPTY} if the player does not own any tiles on this board yet and has not been assigned a code
+     */
+    public int codeOf(Player player)
+    {
+        if ( player.equals( players[0] ) ) {
+            return 1;
+        }
+        if ( player.equals( players[1] ) ) {
+            return 2;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Returns the player for a given tile code.
+     *
+     * @param code tile code
+     * @return player or <code>null</code> if the code is {@link #EMPTY} or no player has been assigned this code yet
+     * @see #codeOf(Player)
+     */
+    public Player player(int code)
+    {
+        return code == EMPTY ? null : players[code-1];
+    }
+
+    /**
+     * Assigns tile codes to players.
+     *
+     * {@link GameState} calls this method so that tile codes 1 and 2 always refer to the first and second
+     * {@link GameState#players player}. Tiles already on the board are re-coded if necessary.
+     *
+     * @param player1 player that gets tile code 1
+     * @param player2 player that gets tile code 2
+     * @throws IllegalArgumentException if the board already holds tiles of some other player
+     */
+    public void setPlayers(Player player1,Player player2)
+    {
+        Validate.notNull( player1, "player1 must not be null" );
+        Validate.notNull( player2, "player2 must not be null" );
+        Validate.isTrue( ! player1.equals( player2 ), "players must be different" );
+        for ( int i = 0 ; i < 2 ; i++ )
+        {
+            if ( players[i] != null && ! players[i].equals( player1 ) && ! players[i].equals( player2 ) ) {
+                throw new IllegalArgumentException( "Board already holds tiles of player "+players[i] );
+            }
+        }
+        if ( player1.equals( players[1] ) || player2.equals( players[0] ) )
+        {
+            // swap tile codes
+            for ( int i = 0 ; i < words ; i++ )
+            {
+                final long tmp = bitboards[i];
+                bitboards[i] = bitboards[words+i];
+                bitboards[words+i] = tmp;
+            }
+            hash = 0;
+            for ( int offset = 0 ; offset < tiles.length ; offset++ )
+            {
+                if ( tiles[offset] != EMPTY )
+                {
+                    tiles[offset] = (byte) (3 - tiles[offset]);
+                    hash ^= zobristKeys[ 2*offset + tiles[offset] - 1 ];
+                }
+            }
+        }
+        players[0] = player1;
+        players[1] = player2;
+    }
+
+    private int playerIndex(Player player)
+    {
+        final int code = codeOf( player );
+        if ( code != EMPTY ) {
+            return code - 1;
+        }
+        if ( players[0] == null ) {
+            players[0] = player;
+            return 0;
+        }
+        if ( players[1] == null ) {
+            players[1] = player;
+            return 1;
+        }
+        throw new IllegalArgumentException( "Board only supports two players but got "+players[0]+", "+players[1]+" and "+player );
+    }
+
+    private int bitIndex(int x,int y) {
+        return x*(height+1) + (height-1-y);
     }
 
     /**
@@ -241,10 +681,19 @@ public class Board
     public void clear(int x,int y)
     {
         final int offset = x + y * width;
-        if ( tiles[offset] != null )
+        final int tile = tiles[offset];
+        if ( tile != EMPTY )
         {
             tileCount--;
-            tiles[offset] = null;
+            tiles[offset] = EMPTY;
+            final int row = height - 1 - y;
+            if ( row < heights[x] ) {
+                heights[x] = row;
+            }
+            final int idx = tile - 1;
+            hash ^= zobristKeys[ 2*offset + idx ];
+            final int bit = bitIndex( x, y );
+            bitboards[ idx*words + (bit >>> 6) ] &= ~(1L << bit);
         }
     }
 
@@ -260,11 +709,23 @@ public class Board
     {
         Validate.notNull( player, "player must not be null" );
         final int offset = x + y * width;
-        if ( tiles[offset] != null ) {
-            throw new IllegalStateException( "("+x+","+y+") is already set to "+tiles[offset] );
+        if ( tiles[offset] != EMPTY ) {
+            throw new IllegalStateException( "("+x+","+y+") is already set to "+get( x, y ) );
         }
-        tiles[offset] = player;
+        final int idx = playerIndex( player );
+        tiles[offset] = (byte) (idx + 1);
         tileCount++;
+        hash ^= zobristKeys[ 2*offset + idx ];
+        final int bit = bitIndex( x, y );
+        bitboards[ idx*words + (bit >>> 6) ] |= 1L << bit;
+        int row = heights[x];
+        if ( height - 1 - y == row )
+        {
+            do {
+                row++;
+            } while ( row < height && tiles[ x + (height - 1 - row) * width ] != EMPTY );
+            heights[x] = row;
+        }
     }
 
     /**
@@ -302,88 +763,105 @@ public class Board
      */
     public Optional<Board.WinningCondition> getState()
     {
-        // check rows
-        final Counter counter = new Counter();
-        for ( int y = 0 ; y < this.height ; y++ )
+        for ( int i = 0 ; i < 2 ; i++ )
         {
-            counter.reset( this.get(0,y) );
-            for ( int x = 1 ; x < this.width ; x++ )
-            {
-                final Player currentTile = this.get(x,y);
-                if ( counter.hasWon( currentTile ) ) {
-                    return Optional.of( new Board.WinningCondition( currentTile ) );
-                }
+            if ( hasWinningLine( i ) ) {
+                return Optional.of( new Board.WinningCondition( players[i] ) );
             }
         }
-
-        // check columns
-        for ( int x = 0 ; x < this.width ; x++ )
+        if ( this.isFull() )
         {
-            counter.reset( this.get(x,0) );
-            for ( int y = 1 ; y < this.height ; y++ )
-            {
-                final Player currentTile = this.get(x,y);
-                if ( counter.hasWon( currentTile ) ) {
-                    return Optional.of( new Board.WinningCondition( currentTile ) );
-                }
-            }
+            return Optional.of( new Board.WinningCondition(true) );
         }
+        return Optional.empty();
+    }
 
-        // check diagonals right-down
-        for ( int y = 0 ; y < this.height ; y++ )
+    private boolean hasWinningLine(int playerIndex)
+    {
+        final int h = height + 1;
+        if ( words == 1 )
         {
-            counter.reset( this.get(0,y ) );
-            for ( int y0 = y+1, x0 = 1 ; y0 < this.height && x0 < this.width ; y0++,x0++ )
-            {
-                final Player currentTile = this.get(x0,y0);
-                if ( counter.hasWon( currentTile ) ) {
-                    return Optional.of( new Board.WinningCondition( currentTile ) );
-                }
-            }
+            final long bitboard = bitboards[playerIndex];
+            return hasWinningLine( bitboard, 1 ) || // vertical
+                   hasWinningLine( bitboard, h ) || // horizontal
+                   hasWinningLine( bitboard, h - 1 ) || // diagonal left-down/right-up
+                   hasWinningLine( bitboard, h + 1 ); // diagonal left-up/right-down
         }
+        final int offset = playerIndex * words;
+        return hasWinningLineInWords( offset, 1 ) ||
+               hasWinningLineInWords( offset, h ) ||
+               hasWinningLineInWords( offset, h - 1 ) ||
+               hasWinningLineInWords( offset, h + 1 );
+    }
 
-        for ( int x = 1 ; x < this.width ; x++ )
+    /*
+     * Checks for winLength consecutive bits that are 'shift' bits apart from each other.
+     *
+     * Each step combines all runs of 'len' bits with the runs 'len' positions further along,
+     * so that only O(log winLength) shifts are needed. A line spanning 64 bits or more cannot
+     * fit into a single word, and Java would wrap such shift distances modulo 64.
+     */
+    private boolean hasWinningLine(long bitboard,int shift)
+    {
+        if ( (long) (winLength-1)*shift >= 64 ) {
+            return false;
+        }
+        long run = bitboard;
+        int len = 1;
+        while ( 2*len <= winLength )
         {
-            counter.reset( this.get(x,0 ) );
-            for ( int y0 = 1, x0 = x+1 ; y0 < this.height && x0 < this.width ; y0++,x0++ )
-            {
-                final Player currentTile = this.get(x0,y0);
-                if ( counter.hasWon( currentTile ) ) {
-                    return Optional.of( new Board.WinningCondition( currentTile ) );
-                }
-            }
+            run &= run >>> (len*shift);
+            len *= 2;
         }
+        if ( len < winLength ) {
+            run &= run >>> ((winLength-len)*shift);
+        }
+        return run != 0;
+    }
 
-        // check diagonals left-down
-        for ( int y = 0 ; y < this.height; y++ )
+    // multi-word variant of hasWinningLine(long,int)
+    private boolean hasWinningLineInWords(int offset,int shift)
+    {
+        System.arraycopy( bitboards, offset, runs, 0, words );
+        int len = 1;
+        while ( 2*len <= winLength )
         {
-            counter.reset( this.get(this.width-1, y ) );
-            for ( int y0 = y+1, x0 = this.width-2 ; y0 < this.height && x0 >= 0 ; y0++,x0-- )
-            {
-                final Player currentTile = this.get(x0,y0);
-                if ( counter.hasWon( currentTile ) ) {
-                    return Optional.of( new Board.WinningCondition( currentTile ) );
-                }
+            shiftRightAndMask( runs, len*shift );
+            len *= 2;
+        }
+        if ( len < winLength ) {
+            shiftRightAndMask( runs, (winLength-len)*shift );
+        }
+        for ( long word : runs )
+        {
+            if ( word != 0 ) {
+                return true;
             }
         }
+        return false;
+    }
 
-        for ( int x = this.width-2 ; x >= 0 ; x-- )
+    /*
+     * Computes words = words & (words >>> bits), treating the array as one large
+     * number with the least significant word first.
+     */
+    private static void shiftRightAndMask(long[] words,int bits)
+    {
+        final int wordShift = bits >>> 6;
+        final int bitShift = bits & 63;
+        for ( int i = 0 ; i < words.length ; i++ )
         {
-            counter.reset( this.get(x,0 ) );
-            for ( int y0 = 1 , x0 = x-1 ; y0 < this.height && x0 >= 0 ; y0++,x0-- )
+            final int j = i + wordShift;
+            long shifted = 0;
+            if ( j < words.length )
             {
-                final Player currentTile = this.get(x0,y0);
-                if ( counter.hasWon( currentTile ) ) {
-                    return Optional.of( new Board.WinningCondition( currentTile ) );
+                shifted = words[j] >>> bitShift;
+                if ( bitShift != 0 && j + 1 < words.length ) {
+                    shifted |= words[j+1] << (64 - bitShift);
                 }
             }
+            words[i] &= shifted;
         }
-
-        if ( this.isFull() )
-        {
-            return Optional.of( new Board.WinningCondition(true) );
-        }
-        return Optional.empty();
     }
 
     /**
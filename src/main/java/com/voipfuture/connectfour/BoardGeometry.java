@@ -0,0 +1,160 @@
+package com.voipfuture.connectfour;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Precomputed index tables describing the rows, columns and diagonals of a board size.
+ *
+ * Cells are identified by their index <code>x + y*width</code>, the same indexing {@link Board} uses for its tiles.
+ * All tables are flat <code>int</code> arrays so code scanning a board just walks an array instead of
+ * computing coordinates and checking bounds.
+ *
+ * <ul>
+ *     <li><b>lines</b> are the rows, columns and both kinds of diagonals of the board. The cells of line <code>i</code> are
+ *     <code>lineCells[ lineStarts[i] ... lineStarts[i+1]-1 ]</code>. Lines come in the order rows (top to bottom), columns
+ *     (left to right), diagonals running right-down and diagonals running left-down.</li>
+ *     <li>the reverse index maps each cell to the lines running through it.</li>
+ * </ul>
+ *
+ * Instances are immutable and shared by all boards of the same size, use {@link #of(int, int, int)} to get one.
+ *
+ * @see Board#geometry
+ */
+public final class BoardGeometry
+{
+    /**
+     * Line direction: row.
+     */
+    public static final int ROW = 0;
+    /**
+     * Line direction: column.
+     */
+    public static final int COLUMN = 1;
+    /**
+     * Line direction: diagonal running right-down.
+     */
+    public static final int DIAGONAL_RIGHT_DOWN = 2;
+    /**
+     * Line direction: diagonal running left-down.
+     */
+    public static final int DIAGONAL_LEFT_DOWN = 3;
+    /**
+     * Number of line directions, each cell is part of exactly one line of each direction.
+     */
+    public static final int DIRECTIONS = 4;
+
+    private static final ConcurrentMap<Long, BoardGeometry> CACHE = new ConcurrentHashMap<>();
+
+    public final int width;
+    public final int height;
+    public final int winLength;
+    /**
+     * Key identifying this board size and win length, mixed into position keys so that positions on boards of
+     * different sizes do not share keys.
+     */
+    public final long key;
+
+    /**
+     * Number of lines.
+     */
+    public final int lineCount;
+    /**
+     * Cells of all lines, one line after the other.
+     */
+    public final int[] lineCells;
+    /**
+     * Index of the first cell of each line in {@link #lineCells}, has an extra element marking the end of the last line.
+     */
+    public final int[] lineStarts;
+    /**
+     * The lines through each cell, indexed by <code>cell*DIRECTIONS + direction</code>.
+     */
+    public final int[] cellLines;
+
+    /**
+     * Returns the geometry of a board size.
+     *
+     * The tables for each size are computed only once and shared afterwards.
+     *
+     * @param width
+     * @param height
+     * @param winLength
+     * @return
+     */
+    public static BoardGeometry of(int width,int height,int winLength)
+    {
+        if ( width < 1 || height < 1 || winLength < 1 ) {
+            throw new IllegalArgumentException( "Width, height and win length must be positive" );
+        }
+        final long key = (long) width << 42 | (long) height << 21 | winLength;
+        return CACHE.computeIfAbsent( key, k -> new BoardGeometry( width, height, winLength, k ) );
+    }
+
+    private BoardGeometry(int width,int height,int winLength,long sizeKey)
+    {
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        // spread the bits of the size over the whole key, like the Zobrist keys of the tiles
+        long z = sizeKey * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        this.key = z ^ (z >>> 31);
+        final int cells = width * height;
+
+        // every cell is part of exactly one line per direction, there are 'height' rows, 'width' columns and
+        // 'width+height-1' diagonals of each kind
+        this.lineCells = new int[ cells * DIRECTIONS ];
+        this.lineStarts = new int[ 3 * (width + height) - 2 + 1 ];
+        this.cellLines = new int[ cells * DIRECTIONS ];
+        final LineBuilder lines = new LineBuilder();
+
+        for ( int y = 0 ; y < height ; y++ ) {
+            lines.add( 0, y, 1, 0, ROW );
+        }
+        for ( int x = 0 ; x < width ; x++ ) {
+            lines.add( x, 0, 0, 1, COLUMN );
+        }
+        for ( int y = 0 ; y < height ; y++ ) {
+            lines.add( 0, y, 1, 1, DIAGONAL_RIGHT_DOWN );
+        }
+        for ( int x = 1 ; x < width ; x++ ) {
+            lines.add( x, 0, 1, 1, DIAGONAL_RIGHT_DOWN );
+        }
+        for ( int y = 0 ; y < height ; y++ ) {
+            lines.add( width - 1, y, -1, 1, DIAGONAL_LEFT_DOWN );
+        }
+        for ( int x = width - 2 ; x >= 0 ; x-- ) {
+            lines.add( x, 0, -1, 1, DIAGONAL_LEFT_DOWN );
+        }
+        this.lineCount = lines.count;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BoardGeometry[ " + width + "x" + height + ", winLength=" + winLength + ", " + lineCount + " lines ]";
+    }
+
+    /*
+     * Appends lines to the line tables.
+     */
+    private final class LineBuilder
+    {
+        private int count;
+        private int size;
+
+        void add(int x,int y,int dx,int dy,int direction)
+        {
+            lineStarts[ count ] = size;
+            for ( ; x >= 0 && x < width && y < height ; x += dx, y += dy )
+            {
+                final int cell = x + y * width;
+                cellLines[ cell * DIRECTIONS + direction ] = count;
+                lineCells[ size++ ] = cell;
+            }
+            lineStarts[ ++count ] = size;
+        }
+    }
+}
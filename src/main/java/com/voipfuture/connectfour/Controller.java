@@ -60,13 +60,14 @@ public class Controller
             }
             else
             {
-                final boolean gameNotOver = !gameState.isGameOver();
+                final boolean gameNotOver = !gameState.hasEnded();
                 if ( gameNotOver && event.get().hasType( MOVE ) )
                 {
                     final IInputProvider.MoveEvent ev = (IInputProvider.MoveEvent) event.get();
-                    if (gameState.board.move(ev.column, ev.player) != -1)
+                    final Board.MoveResult result = gameState.board.moveAndCheck(ev.column, ev.player);
+                    if (result.row != -1)
                     {
-                        if (gameState.getState().isEmpty()) // neither draw nor win
+                        if ( ! result.isGameOver() ) // neither draw nor win
                         {
                             gameState.advanceToNextPlayer();
                         }
@@ -75,7 +76,7 @@ public class Controller
                     {
                         screen.showMessage("Cannot insert tile here, column is full already");
                     }
-                    gameState.moveFinished();
+                    gameState.moveFinished(result);
                 }
                 else if (gameNotOver)
                 {
@@ -84,7 +84,7 @@ public class DelegatingInputProvider implements IInputProvider
 
         if ( currentPlayer.isComputer() )
         {
-            if ( gameState.isGameOver() )
+            if ( gameState.hasEnded() )
             {
                 if ( ! onlyComputerPlayers ) // wait for the slow human to read the message & have a look at the board....
                 {
@@ -104,11 +104,30 @@ public class DelegatingInputProvider implements IInputProvider
                 return Optional.empty();
             }
 
-            System.out.println("'"+currentPlayer.name()+"' is thinking ("+currentPlayer.maxThinkDepth()+" half-moves look-ahead) ...");
-            long time1 = System.currentTimeMillis();
+            if ( currentPlayer.thinkTime() > 0 ) {
+                System.out.println("'"+currentPlayer.name()+"' is thinking ("+currentPlayer.thinkTime()+" ms think time) ...");
+            } else {
+                System.out.println("'"+currentPlayer.name()+"' is thinking ("+currentPlayer.maxThinkDepth()+" half-moves look-ahead) ...");
+            }
+            currentPlayer.lastSearchDepth = 0;
+            currentPlayer.lastMoveStatistics.clear();
+            long time1 = System.nanoTime();
             final Optional<InputEvent> result = InputProviderLoader.getInputProvider( currentPlayer ).readInput(gameState);
-            long elapsed = System.currentTimeMillis() - time1;
-            System.out.println( "Done. Player "+gameState.currentPlayer().name()+" took "+elapsed+" ms to think, average speed is "+(currentPlayer.totalMovesAnalyzed / currentPlayer.totalMoveTimeSeconds)+" moves/s");
+            long elapsedNanos = System.nanoTime() - time1;
+
+            // the algorithm only knows how long its search took, not how long the whole move took
+            currentPlayer.lastMoveStatistics.wallTimeNanos = elapsedNanos;
+            currentPlayer.totalStatistics.add( currentPlayer.lastMoveStatistics );
+            currentPlayer.totalMovesAnalyzed += currentPlayer.lastMoveStatistics.nodes;
+            currentPlayer.totalMoveTimeSeconds += elapsedNanos / 1_000_000_000f;
+            System.out.println( "Done. Player "+gameState.currentPlayer().name()+" took "+(elapsedNanos / 1_000_000)+" ms to think, average speed is "+
+                                Math.round( currentPlayer.totalStatistics.nodesPerSecond() )+" moves/s");
+            if ( currentPlayer.lastSearchDepth > 0 ) {
+                System.out.println( "Search depth reached: "+currentPlayer.lastSearchDepth+" half-moves");
+            }
+            if ( currentPlayer.lastMoveStatistics.nodes > 0 ) {
+                System.out.println( "Search statistics: "+currentPlayer.lastMoveStatistics );
+            }
             return result;
         }
         return filterHumanEvents( humanInput.readInput(gameState), onlyComputerPlayers );
@@ -27,6 +27,8 @@ public class GameState
     public final Board board;
     public final List<Player> players;
     private int currentPlayerIdx = 0;
+    // whether the last move reported through moveFinished() ended the game
+    private boolean ended;
 
     private int gameCount;
     private final Map<Player,Integer> winCounts = new HashMap<>();
@@ -44,6 +46,7 @@ public class GameState
         Validate.notNull( player1, "player1 must not be null" );
         Validate.notNull( player2, "player2 must not be null" );
         this.board = board;
+        this.board.setPlayers( player1, player2 );
         this.players = List.of(player1,player2);
         this.players.forEach(p -> winCounts.put(p,0) );
         this.currentPlayerIdx = 0;
@@ -93,6 +96,7 @@ public class GameState
     public void startNewGame()
     {
         board.clear();
+        ended = false;
         final int playerIdx = new Random(System.currentTimeMillis()).nextInt( players.size());
         setCurrentPlayer( players.get(playerIdx) );
     }
@@ -138,6 +142,7 @@ public class GameState
     public void moveFinished()
     {
         final Optional<Board.WinningCondition> condition = board.getState();
+        ended = condition.isPresent();
         condition.ifPresent(cond ->
         {
                 gameCount++;
@@ -147,6 +152,26 @@ public class GameState
         });
     }
 
+    /**
+     * Update game statistics after a player has finished moving.
+     *
+     * Unlike {@link #moveFinished()}, this method does not need to inspect the whole board.
+     *
+     * @param result outcome of the move as returned by {@link Board#moveAndCheck(int, Player)}
+     */
+    public void moveFinished(Board.MoveResult result)
+    {
+        Validate.notNull( result, "result must not be null" );
+        ended = result.isGameOver();
+        if ( result.isGameOver() )
+        {
+            gameCount++;
+            if ( result.isWin ) {
+                incWins( result.player );
+            }
+        }
+    }
+
     /**
      * Returns the this.s state in terms of draw/win/loss.
      *
@@ -163,4 +188,16 @@ public class GameState
     public boolean isGameOver() {
         return board.isGameOver();
     }
+
+    /**
+     * Returns whether the last move reported through {@link #moveFinished(Board.MoveResult)} ended the game.
+     *
+     * Unlike {@link #isGameOver()}, this method does not inspect the board. Tiles placed on the board without reporting
+     * the move are not taken into account.
+     *
+     * @return <code>true</code> if the game ended with the last move and no new game has been {@link #startNewGame() started} since
+     */
+    public boolean hasEnded() {
+        return ended;
+    }
 }
\ No newline at end of file
@@ -139,4 +139,13 @@ public interface IInputProvider
      */
     default void clearInputQueue() {
     }
+
+    /**
+     * Releases threads and other resources held by this input provider.
+     *
+     * Called when the provider is not going to be asked for input anymore, for example because
+     * the player switched to another algorithm.
+     */
+    default void close() {
+    }
 }
\ No newline at end of file
@@ -20,10 +20,29 @@ public class Player
     private String name;
     private boolean isComputer;
     private int maxThinkDepth = 7;
+    private int transpositionTableSize = 16;
+    private int evaluationCacheSize = 16;
+    private int thinkTime;
+    private int searchThreads = 1;
+    private boolean pondering;
+    private boolean usingTactics;
+    private boolean usingThreatEvaluation;
     private String algorithm = "com.voipfuture.connectfour.algorithms.HeuristicPlayer";
 
     public long totalMovesAnalyzed;
     public float totalMoveTimeSeconds;
+    /**
+     * (computer players only) Search depth in half-moves the algorithm reached on its last move, 0 if unknown.
+     */
+    public int lastSearchDepth;
+    /**
+     * (computer players only) Statistics of the search for the player's last move.
+     */
+    public final SearchStatistics lastMoveStatistics = new SearchStatistics();
+    /**
+     * (computer players only) Statistics of all searches of this player, summed up.
+     */
+    public final SearchStatistics totalStatistics = new SearchStatistics();
 
     /**
      * Creates a player with a given name.
@@ -85,6 +104,182 @@ public class Player
         this.maxThinkDepth = maxThinkDepth;
     }
 
+    /**
+     * (computer players only) Returns the time the player may think about a move.
+     *
+     * Algorithms that support a time limit search as deep as they can within this time instead of
+     * stopping at {@link #maxThinkDepth()}.
+     *
+     * @return think time in milliseconds, 0 if the search depth should be limited by {@link #maxThinkDepth()} instead
+     * @see #isComputer()
+     */
+    public int thinkTime()
+    {
+        return thinkTime;
+    }
+
+    /**
+     * (computer players only) Sets the time the player may think about a move.
+     *
+     * @param thinkTimeMillis think time in milliseconds, 0 to limit the search by {@link #maxThinkDepth()} instead
+     * @see #isComputer()
+     */
+    public void setThinkTime(int thinkTimeMillis)
+    {
+        Validate.isTrue( thinkTimeMillis >= 0 , "Think time must not be negative." );
+        this.thinkTime = thinkTimeMillis;
+    }
+
+    /**
+     * (computer players only) Returns the number of threads the player may use to search for a move.
+     *
+     * Only used by algorithms that support searching in parallel.
+     *
+     * @return number of threads, 1 if the search should run on the calling thread
+     * @see #isComputer()
+     */
+    public int searchThreads()
+    {
+        return searchThreads;
+    }
+
+    /**
+     * (computer players only) Sets the number of threads the player may use to search for a move.
+     *
+     * @param searchThreads number of threads, 1 to search on the calling thread
+     * @see #isComputer()
+     */
+    public void setSearchThreads(int searchThreads)
+    {
+        Validate.isTrue( searchThreads > 0 , "Number of search threads must be at least 1." );
+        this.searchThreads = searchThreads;
+    }
+
+    /**
+     * (computer players only) Returns whether the player keeps searching while the opponent is to move.
+     *
+     * Only used by algorithms that support pondering. The results are used to answer the opponent's move faster.
+     *
+     * @return
+     * @see #isComputer()
+     */
+    public boolean isPondering()
+    {
+        return pondering;
+    }
+
+    /**
+     * (computer players only) Sets whether the player keeps searching while the opponent is to move.
+     *
+     * @param pondering <code>true</code> to search while the opponent is to move
+     * @see #isComputer()
+     */
+    public void setPondering(boolean pondering)
+    {
+        this.pondering = pondering;
+    }
+
+    /**
+     * (computer players only) Returns whether the player checks for immediate wins and forced moves before and during its search.
+     *
+     * Only used by algorithms that support it. Makes the search much faster in positions with threats, but the
+     * player may pick different moves than without the checks.
+     *
+     * @return
+     * @see #isComputer()
+     */
+    public boolean isUsingTactics()
+    {
+        return usingTactics;
+    }
+
+    /**
+     * (computer players only) Sets whether the player checks for immediate wins and forced moves before and during its search.
+     *
+     * @param usingTactics <code>true</code> to check for immediate wins and forced moves
+     * @see #isComputer()
+     */
+    public void setUsingTactics(boolean usingTactics)
+    {
+        this.usingTactics = usingTactics;
+    }
+
+    /**
+     * (computer players only) Returns whether the player scores positions by the lines both players can still complete
+     * instead of by the runs of its own tiles.
+     *
+     * Only used by algorithms that support it, and only on boards small enough for bitboards. The player will pick
+     * different moves than without it.
+     *
+     * @return
+     * @see #isComputer()
+     */
+    public boolean isUsingThreatEvaluation()
+    {
+        return usingThreatEvaluation;
+    }
+
+    /**
+     * (computer players only) Sets whether the player scores positions by the lines both players can still complete.
+     *
+     * @param usingThreatEvaluation <code>true</code> to score positions by the lines both players can still complete
+     * @see #isComputer()
+     */
+    public void setUsingThreatEvaluation(boolean usingThreatEvaluation)
+    {
+        this.usingThreatEvaluation = usingThreatEvaluation;
+    }
+
+    /**
+     * (computer players only) Returns the size of the transposition table in megabytes.
+     *
+     * Only used by algorithms that support a transposition table.
+     *
+     * @return size in megabytes, 0 if no transposition table should be used
+     * @see #isComputer()
+     */
+    public int transpositionTableSize()
+    {
+        return transpositionTableSize;
+    }
+
+    /**
+     * (computer players only) Sets the size of the transposition table in megabytes.
+     *
+     * @param sizeInMB size in megabytes, 0 disables the transposition table
+     * @see #isComputer()
+     */
+    public void setTranspositionTableSize(int sizeInMB)
+    {
+        Validate.isTrue( sizeInMB >= 0 , "Transposition table size must not be negative." );
+        this.transpositionTableSize = sizeInMB;
+    }
+
+    /**
+     * (computer players only) Returns the size of the cache for position scores in megabytes.
+     *
+     * Only used by algorithms that support an evaluation cache.
+     *
+     * @return size in megabytes, 0 if no evaluation cache should be used
+     * @see #isComputer()
+     */
+    public int evaluationCacheSize()
+    {
+        return evaluationCacheSize;
+    }
+
+    /**
+     * (computer players only) Sets the size of the cache for position scores in megabytes.
+     *
+     * @param sizeInMB size in megabytes, 0 disables the evaluation cache
+     * @see #isComputer()
+     */
+    public void setEvaluationCacheSize(int sizeInMB)
+    {
+        Validate.isTrue( sizeInMB >= 0 , "Evaluation cache size must not be negative." );
+        this.evaluationCacheSize = sizeInMB;
+    }
+
     /**
      * (computer players only) Returns the fully-qualified class name of the {@link IInputProvider} implementation
      * that should be used if this is a computer player.
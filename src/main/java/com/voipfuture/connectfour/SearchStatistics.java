@@ -0,0 +1,138 @@
+package com.voipfuture.connectfour;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counters describing the work a computer player did to find a move.
+ *
+ * Each thread of a search counts into its own instance without any synchronization, the instances are
+ * {@link #addConcurrent(SearchStatistics) merged} once the threads are done. Not every algorithm fills every counter.
+ *
+ * @see Player#lastMoveStatistics
+ * @see Player#totalStatistics
+ */
+public class SearchStatistics
+{
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Number of positions visited (for Monte Carlo algorithms: the number of simulated games).
+     */
+    public long nodes;
+    /**
+     * Number of positions scored by the heuristic.
+     */
+    public long evaluations;
+    /**
+     * Number of positions in which the game was decided without searching further: wins, draws and,
+     * if the player is {@link Player#isUsingTactics() using tactics}, forced wins and losses.
+     */
+    public long terminalPositions;
+    /**
+     * Number of positions whose search ended early because a move was good enough (beta cut-offs).
+     */
+    public long cutoffs;
+    /**
+     * Number of transposition table look-ups.
+     */
+    public long transpositionTableProbes;
+    /**
+     * Number of transposition table look-ups that found an entry.
+     */
+    public long transpositionTableHits;
+    /**
+     * Largest number of half-moves below the current position a search visited.
+     */
+    public int maxDepth;
+    /**
+     * Elapsed time in nanoseconds.
+     */
+    public long wallTimeNanos;
+    /**
+     * CPU time in nanoseconds, summed over all threads. 0 if the JVM can't measure CPU time.
+     */
+    public long cpuTimeNanos;
+
+    /**
+     * Adds the counters of another instance to this one.
+     *
+     * @param other
+     * @return this instance (for chaining)
+     */
+    public SearchStatistics add(SearchStatistics other)
+    {
+        nodes += other.nodes;
+        evaluations += other.evaluations;
+        terminalPositions += other.terminalPositions;
+        cutoffs += other.cutoffs;
+        transpositionTableProbes += other.transpositionTableProbes;
+        transpositionTableHits += other.transpositionTableHits;
+        maxDepth = Math.max( maxDepth, other.maxDepth );
+        wallTimeNanos += other.wallTimeNanos;
+        cpuTimeNanos += other.cpuTimeNanos;
+        return this;
+    }
+
+    /**
+     * Adds the counters of a search that ran at the same time as the one counted by this instance.
+     *
+     * Works like {@link #add(SearchStatistics)}, but the elapsed time is the longer of the two times instead of their sum.
+     *
+     * @param other
+     * @return this instance (for chaining)
+     */
+    public SearchStatistics addConcurrent(SearchStatistics other)
+    {
+        final long wallTime = Math.max( wallTimeNanos, other.wallTimeNanos );
+        add( other );
+        wallTimeNanos = wallTime;
+        return this;
+    }
+
+    /**
+     * Resets all counters to zero.
+     */
+    public void clear()
+    {
+        nodes = 0;
+        evaluations = 0;
+        terminalPositions = 0;
+        cutoffs = 0;
+        transpositionTableProbes = 0;
+        transpositionTableHits = 0;
+        maxDepth = 0;
+        wallTimeNanos = 0;
+        cpuTimeNanos = 0;
+    }
+
+    /**
+     * Returns the number of nodes visited per second of {@link #wallTimeNanos elapsed time}.
+     *
+     * @return nodes per second, 0 if no time has elapsed
+     */
+    public double nodesPerSecond()
+    {
+        return wallTimeNanos == 0 ? 0 : nodes * 1_000_000_000d / wallTimeNanos;
+    }
+
+    /**
+     * Returns the CPU time the current thread has used so far.
+     *
+     * @return CPU time in nanoseconds, 0 if the JVM can't measure it
+     */
+    public static long currentThreadCpuTime()
+    {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "%d nodes (%.0f nodes/s), %d evaluations, %d terminal positions, %d cut-offs, " +
+                              "%d of %d transposition table look-ups hit, max. depth %d, %d ms elapsed, %d ms CPU",
+                              nodes, nodesPerSecond(), evaluations, terminalPositions, cutoffs,
+                              transpositionTableHits, transpositionTableProbes, maxDepth,
+                              wallTimeNanos / 1_000_000, cpuTimeNanos / 1_000_000 );
+    }
+}
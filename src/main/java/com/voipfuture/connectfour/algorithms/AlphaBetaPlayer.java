@@ -0,0 +1,233 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.GameState;
+import com.voipfuture.connectfour.IInputProvider;
+import com.voipfuture.connectfour.Player;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A computer player that picks the same moves as {@link HeuristicPlayer} but uses
+ * an {@link AlphaBetaSearch alpha-beta search} to find them much faster.
+ *
+ * The player keeps a {@link TranspositionTable} of {@link Player#transpositionTableSize() configurable size}
+ * from one move to the next. If the player has a {@link Player#thinkTime() think time}, the search uses iterative
+ * deepening and goes as deep as it can within that time instead. With more than one
+ * {@link Player#searchThreads() search thread}, the moves of the current position are searched in parallel.
+ * If the player is {@link Player#isUsingTactics() using tactics}, immediate wins and forced blocks are played without
+ * searching and moves that lose on the spot are not searched, see {@link Tactics}.
+ *
+ * If the player is {@link Player#isPondering() pondering}, a background thread keeps thinking while the opponent is to move.
+ * It searches the answer to the reply the search expects first and then the answers to all other replies, storing
+ * the results in the transposition table as it goes. If the opponent plays one of the replies that have been searched
+ * completely, the answer is played without searching again. The background thread is stopped as soon as the player has to
+ * move again.
+ *
+ * Select it using <code>player.setAlgorithm("com.voipfuture.connectfour.algorithms.AlphaBetaPlayer")</code>.
+ */
+public class AlphaBetaPlayer implements IInputProvider {
+
+    private TranspositionTable transpositionTable;
+    private int transpositionTableSize;
+    private ForkJoinPool pool;
+    private Ponder ponder;
+    private Thread ponderThread;
+
+    @Override
+    public Optional<InputEvent> readInput(GameState gameState) {
+        stopPondering();
+
+        //first move on the start of a game is always random
+        if (gameState.board.isEmpty()) {
+            int column = new Random(System.currentTimeMillis()).nextInt(gameState.board.width);
+            return Optional.of(new MoveEvent(gameState.currentPlayer(), column));
+        }
+        final int bookMove = OpeningBook.getDefaultMove(gameState.board, gameState.currentPlayer());
+        if (bookMove != -1) {
+            return Optional.of(new MoveEvent(gameState.currentPlayer(), bookMove));
+        }
+
+        Player currentPlayer = gameState.currentPlayer();
+        final TranspositionTable table = getTranspositionTable(currentPlayer);
+        int column = getPonderedMove(gameState);
+        if (column == -1) {
+            AlphaBetaSearch search = new AlphaBetaSearch(gameState.board, currentPlayer, gameState.nextPlayer());
+            search.setTranspositionTable(table);
+            search.setForkJoinPool(getPool(currentPlayer));
+            search.setTactics(currentPlayer.isUsingTactics());
+            if (currentPlayer.thinkTime() > 0) {
+                column = search.getNextMoveWithin(currentPlayer.thinkTime());
+            } else {
+                column = search.getNextMove(currentPlayer.maxThinkDepth());
+            }
+            currentPlayer.lastSearchDepth = search.completedDepth();
+            currentPlayer.lastMoveStatistics.add(search.statistics());
+        }
+        if (currentPlayer.isPondering()) {
+            startPondering(gameState, column);
+        }
+        return Optional.of(new MoveEvent(currentPlayer, column));
+    }
+
+    @Override
+    public void close() {
+        stopPondering();
+        ponder = null;
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private TranspositionTable getTranspositionTable(Player player) {
+        final int size = player.transpositionTableSize();
+        if (size != transpositionTableSize) {
+            transpositionTable = size == 0 ? null : new TranspositionTable(size);
+            transpositionTableSize = size;
+        }
+        if (transpositionTable != null) {
+            transpositionTable.newSearch();
+        }
+        return transpositionTable;
+    }
+
+    private ForkJoinPool getPool(Player player) {
+        final int threads = player.searchThreads();
+        if (pool != null && pool.getParallelism() != threads) {
+            pool.shutdown();
+            pool = null;
+        }
+        if (pool == null && threads > 1) {
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+
+    private void startPondering(GameState gameState, int column) {
+        final Board board = gameState.board.createCopy();
+        final int y = board.makeMove(column, gameState.currentPlayer());
+        if (y == -1 || board.isWinningTile(column, y) || board.isFull()) {
+            return;
+        }
+        ponder = new Ponder(board, gameState.currentPlayer(), gameState.nextPlayer());
+        ponderThread = new Thread(ponder, "ponder-" + gameState.currentPlayer().name());
+        ponderThread.setDaemon(true);
+        ponderThread.start();
+    }
+
+    private void stopPondering() {
+        if (ponderThread == null) {
+            return;
+        }
+        ponder.stop();
+        try {
+            ponderThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ponderThread = null;
+    }
+
+    /**
+     * returns the move found while pondering if the opponent played a reply whose answer has been searched, -1 otherwise
+     */
+    private int getPonderedMove(GameState gameState) {
+        final Ponder result = ponder;
+        ponder = null;
+        final Player player = gameState.currentPlayer();
+        if (result == null || result.maxThinkDepth != player.maxThinkDepth() || result.thinkTime != player.thinkTime()
+                || result.usingTactics != player.isUsingTactics()) {
+            return -1;
+        }
+        final long hash = gameState.board.hash();
+        for (int reply = 0; reply < result.moves.length; reply++) {
+            if (result.moves[reply] != -1 && result.hashes[reply] == hash) {
+                player.lastSearchDepth = result.depths[reply];
+                return result.moves[reply];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * searches the answers to all of the opponent's replies, starting with the reply the search expects
+     */
+    private final class Ponder implements Runnable {
+
+        private final Board board;
+        private final Player player;
+        private final Player opponent;
+        private final int maxThinkDepth;
+        private final int thinkTime;
+        private final boolean usingTactics;
+
+        // answer to each reply, indexed by the column of the reply
+        private final long[] hashes;
+        private final int[] moves;
+        private final int[] depths;
+
+        private volatile boolean stopped;
+        private volatile AlphaBetaSearch search;
+
+        Ponder(Board board, Player player, Player opponent) {
+            this.board = board;
+            this.player = player;
+            this.opponent = opponent;
+            this.maxThinkDepth = player.maxThinkDepth();
+            this.thinkTime = player.thinkTime();
+            this.usingTactics = player.isUsingTactics();
+            this.hashes = new long[board.width];
+            this.moves = new int[board.width];
+            this.depths = new int[board.width];
+            Arrays.fill(moves, -1);
+        }
+
+        @Override
+        public void run() {
+            final int[] replies = new int[board.width];
+            final int count = board.playableColumns(replies);
+            // the expected reply is the best move the last search found for the opponent
+            final int expectedReply = transpositionTable == null ? -1 :
+                    TranspositionTable.move(transpositionTable.probe(TranspositionTable.key(board, opponent)));
+            for (int i = 1; i < count; i++) {
+                if (replies[i] == expectedReply) {
+                    System.arraycopy(replies, 0, replies, 1, i);
+                    replies[0] = expectedReply;
+                }
+            }
+
+            for (int i = 0; i < count && !stopped; i++) {
+                final int reply = replies[i];
+                final int y = board.makeMove(reply, opponent);
+                if (!board.isWinningTile(reply, y) && !board.isFull()) {
+                    final AlphaBetaSearch answer = new AlphaBetaSearch(board, player, opponent);
+                    answer.setTranspositionTable(transpositionTable);
+                    answer.setForkJoinPool(pool);
+                    answer.setTactics(usingTactics);
+                    search = answer;
+                    if (!stopped) {
+                        final int move = thinkTime > 0 ? answer.getNextMoveWithin(thinkTime) : answer.getNextMove(maxThinkDepth);
+                        if (!stopped && move != -1) {
+                            hashes[reply] = board.hash();
+                            moves[reply] = move;
+                            depths[reply] = answer.completedDepth();
+                        }
+                    }
+                }
+                board.undoMove();
+            }
+        }
+
+        void stop() {
+            stopped = true;
+            final AlphaBetaSearch running = search;
+            if (running != null) {
+                running.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,594 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+import com.voipfuture.connectfour.SearchStatistics;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nega-max search with alpha-beta pruning and principal variation search (PVS).
+ *
+ * Uses the same evaluation and the same search horizon as {@link HeuristicPlayer}, so
+ * {@link #getNextMove(int)} returns exactly the move a full nega-max search would return while visiting
+ * only a fraction of the nodes. Root moves are always searched from left to right and a later move
+ * only replaces the current best move if it scores strictly better, just like {@link HeuristicPlayer} does.
+ *
+ * Positions at the horizon are scored by an {@link IncrementalEvaluator} that is updated with every move, which gives
+ * the same scores as {@link Heuristic} without scanning the whole board.
+ *
+ * An optional {@link TranspositionTable} lets the search skip positions it has already searched through a different
+ * move order. Below the root, moves are searched in the order suggested by {@link MoveOrdering}.
+ *
+ * Besides searching to a fixed depth, the search can run in iterative deepening mode with a time limit,
+ * see {@link #getNextMoveWithin(long)}. A running search can be {@link #stop() stopped} from another thread.
+ *
+ * If a {@link #setForkJoinPool(ForkJoinPool) pool} is set, root moves are searched in parallel, each one on its own
+ * copy of the board. The workers share the best score found so far and still return the same move as the sequential search.
+ *
+ * With {@link #setTactics(boolean) tactics} enabled, every position is first checked for a move that wins on the spot,
+ * which ends the search of that position, and only the moves that do not lose on the spot are searched. This also finds
+ * double threats one half-move beyond the horizon, so the search no longer returns exactly the move {@link HeuristicPlayer} picks.
+ *
+ * The search counts what it does in its {@link #statistics() statistics}, the workers of a parallel search count into
+ * their own instances that are merged when they are done.
+ *
+ * Instances are not thread-safe, the search runs on a private copy of the board.
+ */
+public final class AlphaBetaSearch {
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final Board board;
+    private final Player maxPlayer;
+    private final Player minPlayer;
+    // scores the positions at the horizon, kept up to date with every move made on the board
+    private final IncrementalEvaluator evaluator;
+
+    // how often (in nodes) to check for the deadline, needs to be a power of two
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private TranspositionTable transpositionTable;
+    private MoveOrdering moveOrdering;
+    private ForkJoinPool pool;
+    private Tactics tactics;
+
+    private final SearchStatistics statistics = new SearchStatistics();
+    private long deadline;
+    // shared with the workers of a parallel search
+    private final AtomicBoolean stopped;
+    private boolean aborted;
+    private int rootMoveOffset;
+    private int completedDepth;
+    private int completedScore;
+    // whether the root position has only one move worth searching
+    private boolean rootDecided;
+
+    // buffers for possible moves, one for each ply
+    private int[][] possibleMoves = new int[0][];
+
+    /**
+     * Create instance.
+     *
+     * @param board the position to search, will not be modified
+     * @param maxPlayer the player that is to move
+     * @param minPlayer the opponent
+     */
+    public AlphaBetaSearch(Board board, Player maxPlayer, Player minPlayer) {
+        Validate.notNull(board, "board must not be null");
+        Validate.notNull(maxPlayer, "maxPlayer must not be null");
+        Validate.notNull(minPlayer, "minPlayer must not be null");
+        this.board = board.createCopy();
+        this.maxPlayer = maxPlayer;
+        this.minPlayer = minPlayer;
+        if (this.board.codeOf(maxPlayer) == Board.EMPTY || this.board.codeOf(minPlayer) == Board.EMPTY) {
+            // make sure both players have a tile code, keeping any code that has already been assigned
+            if (this.board.codeOf(maxPlayer) == 2 || this.board.codeOf(minPlayer) == 1) {
+                this.board.setPlayers(minPlayer, maxPlayer);
+            } else {
+                this.board.setPlayers(maxPlayer, minPlayer);
+            }
+        }
+        this.evaluator = new IncrementalEvaluator(this.board);
+        this.moveOrdering = new MoveOrdering(board.width);
+        this.stopped = new AtomicBoolean();
+    }
+
+    /**
+     * Create a worker that searches a single root move of the parent search in parallel.
+     */
+    private AlphaBetaSearch(AlphaBetaSearch parent) {
+        this.board = parent.board.createCopy();
+        this.maxPlayer = parent.maxPlayer;
+        this.minPlayer = parent.minPlayer;
+        this.evaluator = new IncrementalEvaluator(board);
+        this.transpositionTable = parent.transpositionTable;
+        this.moveOrdering = parent.moveOrdering == null ? null : new MoveOrdering(board.width);
+        this.tactics = parent.tactics;
+        this.deadline = parent.deadline;
+        this.stopped = parent.stopped;
+        this.possibleMoves = new int[parent.possibleMoves.length][];
+    }
+
+    /**
+     * Sets the transposition table to use.
+     *
+     * @param transpositionTable transposition table, may be shared with other searches, <code>null</code> to search without one
+     */
+    public void setTranspositionTable(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+    }
+
+    /**
+     * Sets the move ordering to use.
+     *
+     * @param moveOrdering move ordering, <code>null</code> to search moves from left to right
+     */
+    public void setMoveOrdering(MoveOrdering moveOrdering) {
+        this.moveOrdering = moveOrdering;
+    }
+
+    /**
+     * Sets the pool to search root moves in parallel with.
+     *
+     * @param pool pool to run the search in, <code>null</code> to search on the calling thread
+     */
+    public void setForkJoinPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Enables or disables the tactical checks, see {@link Tactics}.
+     *
+     * Boards that {@link Tactics#supports(Board) are too large} are always searched without them.
+     *
+     * @param enabled <code>true</code> to check each position for immediate wins and forced moves
+     */
+    public void setTactics(boolean enabled) {
+        this.tactics = enabled && Tactics.supports(board) ? new Tactics(board) : null;
+    }
+
+    /**
+     * Sets the index of the root move to search first.
+     *
+     * Searches that run concurrently on a shared {@link TranspositionTable} can use different offsets so they
+     * do not all search the same moves at the same time. With an offset other than 0, the search may return a different
+     * move than {@link HeuristicPlayer} if several moves are equally good.
+     *
+     * @param rootMoveOffset index of the first root move to search, wraps around at the number of possible moves
+     */
+    public void setRootMoveOffset(int rootMoveOffset) {
+        Validate.isTrue(rootMoveOffset >= 0, "rootMoveOffset must not be negative");
+        this.rootMoveOffset = rootMoveOffset;
+    }
+
+    /**
+     * Stops a running search.
+     *
+     * May be called from any thread. The search returns as soon as possible, the result is the same as if its
+     * time had run out.
+     */
+    public void stop() {
+        stopped.set(true);
+    }
+
+    /**
+     * Returns the best move for the player that is to move.
+     *
+     * @param maxThinkDepth search horizon, as in {@link Player#maxThinkDepth()}
+     * @return column of the best move or -1 if no move is possible
+     */
+    public int getNextMove(int maxThinkDepth) {
+        Validate.isTrue(maxThinkDepth > 0, "maxThinkDepth must be at least 1 half-move.");
+        // HeuristicPlayer evaluates leaf positions once the depth of its recursion exceeds maxThinkDepth,
+        // which is maxThinkDepth+2 half-moves below the root
+        deadline = Long.MAX_VALUE;
+        final long start = System.nanoTime();
+        final long cpuStart = SearchStatistics.currentThreadCpuTime();
+        final int move = searchRoot(maxThinkDepth + 2);
+        addTime(start, cpuStart);
+        return move;
+    }
+
+    /**
+     * Returns the best move for the player that is to move, using iterative deepening with a time limit.
+     *
+     * The position is searched to a depth of one half-move, then two half-moves and so on until either the time is up or
+     * the search reaches the end of the game. The best move of the deepest search that completed in time is returned.
+     * A search to a depth of one half-move is always completed, even if it takes longer than the time limit. With
+     * {@link #setTactics(boolean) tactics} enabled, the search also stops if there is only one move worth playing.
+     *
+     * @param thinkTimeMillis time limit in milliseconds
+     * @return column of the best move or -1 if no move is possible
+     * @see #completedDepth()
+     */
+    public int getNextMoveWithin(long thinkTimeMillis) {
+        Validate.isTrue(thinkTimeMillis > 0, "thinkTimeMillis must be positive");
+        return searchIteratively(board.width * board.height - board.tileCount(), thinkTimeMillis);
+    }
+
+    /**
+     * Returns the best move for the player that is to move, using iterative deepening up to a given depth.
+     *
+     * Works like {@link #getNextMoveWithin(long)} but stops at the given depth.
+     *
+     * @param maxDepth maximum search depth in half-moves
+     * @param thinkTimeMillis time limit in milliseconds, 0 to search without a time limit
+     * @return column of the best move or -1 if no move is possible or the search was {@link #stop() stopped}
+     *         before it completed a search to a depth of one half-move
+     * @see #completedDepth()
+     */
+    public int searchIteratively(int maxDepth, long thinkTimeMillis) {
+        Validate.isTrue(maxDepth > 0, "maxDepth must be at least 1 half-move.");
+        Validate.isTrue(thinkTimeMillis >= 0, "thinkTimeMillis must not be negative");
+        deadline = Long.MAX_VALUE;
+        final long start = System.nanoTime();
+        final long cpuStart = SearchStatistics.currentThreadCpuTime();
+        int bestMove = searchRoot(1);
+        if (thinkTimeMillis > 0) {
+            deadline = System.nanoTime() + thinkTimeMillis * 1_000_000L;
+        }
+        for (int depth = 2; depth <= maxDepth && bestMove != -1 && !rootDecided; depth++) {
+            final int move = searchRoot(depth);
+            if (move == -1) {
+                break;
+            }
+            bestMove = move;
+        }
+        addTime(start, cpuStart);
+        return bestMove;
+    }
+
+    private void addTime(long start, long cpuStart) {
+        statistics.wallTimeNanos += System.nanoTime() - start;
+        statistics.cpuTimeNanos += SearchStatistics.currentThreadCpuTime() - cpuStart;
+    }
+
+    /**
+     * Returns the search depth of the last completed search.
+     *
+     * @return depth in half-moves
+     */
+    public int completedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the score of the best move found by the last completed search.
+     *
+     * @return score from the point of view of the player that is to move
+     */
+    public int bestScore() {
+        return completedScore;
+    }
+
+    /**
+     * Returns the number of positions visited so far.
+     *
+     * @return
+     */
+    public long nodeCount() {
+        return statistics.nodes;
+    }
+
+    /**
+     * Returns what this search has done so far, including the work of parallel workers that are done.
+     *
+     * @return statistics, updated by further searches
+     */
+    public SearchStatistics statistics() {
+        return statistics;
+    }
+
+    /**
+     * search all moves at the root, returns the best move or -1 if the search was aborted
+     */
+    private int searchRoot(int depth) {
+        if (possibleMoves.length < depth) {
+            possibleMoves = new int[depth][];
+        }
+        aborted = stopped.get();
+        if (aborted) {
+            return -1;
+        }
+        statistics.nodes++;
+
+        int count = getPossibleMoves(0);
+        rootDecided = false;
+        if (tactics != null) {
+            final long columns = tactics.columnsToSearch(board, maxPlayer, minPlayer);
+            if (columns < 0) {
+                // the leftmost winning move, as the search would pick it
+                completedDepth = depth;
+                completedScore = Heuristic.WIN_SCORE;
+                rootDecided = true;
+                statistics.terminalPositions++;
+                return Long.numberOfTrailingZeros(columns);
+            }
+            // if every move loses, search them all to pick the best of them
+            if (columns != 0) {
+                count = filterMoves(possibleMoves[0], count, columns);
+                rootDecided = count == 1;
+            }
+        }
+        if (pool != null && count > 1) {
+            return searchRootInParallel(depth, count);
+        }
+        int bestMove = -1;
+        int bestScore = -INFINITY;
+        final int[] moves = possibleMoves[0];
+        for (int i = 0; i < count; i++) {
+            final int x = moves[(i + rootMoveOffset) % count];
+            final int y = makeMove(x, maxPlayer);
+            int score;
+            if (board.isWinningTile(x, y)) {
+                statistics.terminalPositions++;
+                score = Heuristic.WIN_SCORE;
+            } else if (board.isFull()) {
+                statistics.terminalPositions++;
+                score = -Heuristic.DRAW_SCORE;
+            } else if (bestMove == -1) {
+                score = -negamax(depth - 1, 1, -INFINITY, INFINITY, minPlayer);
+            } else {
+                // only interested in whether this move is better than the best one so far
+                score = -negamax(depth - 1, 1, -bestScore - 1, -bestScore, minPlayer);
+                if (score > bestScore) {
+                    score = -negamax(depth - 1, 1, -INFINITY, -bestScore, minPlayer);
+                }
+            }
+            undoMove();
+            if (aborted) {
+                return -1;
+            }
+            if (bestMove == -1 || score > bestScore) {
+                bestMove = x;
+                bestScore = score;
+            }
+        }
+        completedDepth = depth;
+        completedScore = bestScore;
+        return bestMove;
+    }
+
+    /**
+     * search all moves at the root in parallel, returns the best move or -1 if the search was aborted
+     */
+    private int searchRootInParallel(int depth, int count) {
+        final int[] moves = possibleMoves[0];
+        final AtomicInteger bestScore = new AtomicInteger(-INFINITY);
+        final List<RootMoveTask> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new RootMoveTask(new AlphaBetaSearch(this), moves[i], depth, bestScore));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+        int bestMove = -1;
+        int best = -INFINITY;
+        for (RootMoveTask task : tasks) {
+            statistics.addConcurrent(task.search.statistics);
+            aborted |= task.search.aborted;
+            // moves that failed low scored less than the best move, so among the exact scores the leftmost best move wins
+            final int score = task.join();
+            if (bestMove == -1 || score > best) {
+                bestMove = task.column;
+                best = score;
+            }
+        }
+        if (aborted) {
+            return -1;
+        }
+        completedDepth = depth;
+        completedScore = best;
+        return bestMove;
+    }
+
+    /**
+     * alpha-beta nega-max with principal variation search, returns the score from the point of view of the given player
+     */
+    private int negamax(int depth, int ply, int alpha, int beta, Player player) {
+        if ((++statistics.nodes & (DEADLINE_CHECK_INTERVAL - 1)) == 0 && (stopped.get() || System.nanoTime() >= deadline)) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (ply > statistics.maxDepth) {
+            statistics.maxDepth = ply;
+        }
+        if (depth == 0) {
+            statistics.evaluations++;
+            return evaluator.getScore(board.codeOf(player));
+        }
+        final long key = transpositionTable == null ? 0 : TranspositionTable.key(board, player);
+        int ttMove = -1;
+        if (transpositionTable != null) {
+            final long entry = transpositionTable.probe(key);
+            statistics.transpositionTableProbes++;
+            if (entry != TranspositionTable.NO_ENTRY) {
+                statistics.transpositionTableHits++;
+                ttMove = TranspositionTable.move(entry);
+            }
+            if (entry != TranspositionTable.NO_ENTRY && TranspositionTable.depth(entry) >= depth) {
+                final int score = TranspositionTable.score(entry);
+                switch (TranspositionTable.bound(entry)) {
+                    case TranspositionTable.EXACT:
+                        return score;
+                    case TranspositionTable.LOWER_BOUND:
+                        if (score >= beta) {
+                            return score;
+                        }
+                        break;
+                    case TranspositionTable.UPPER_BOUND:
+                        if (score <= alpha) {
+                            return score;
+                        }
+                        break;
+                }
+            }
+        }
+        final int originalAlpha = alpha;
+        final Player opponent = player == maxPlayer ? minPlayer : maxPlayer;
+        long columns = 0;
+        if (tactics != null) {
+            columns = tactics.columnsToSearch(board, player, opponent);
+            if (columns < 0) {
+                statistics.terminalPositions++;
+                return Heuristic.WIN_SCORE;
+            }
+            if (columns == 0) {
+                // every move lets the opponent win with the next move
+                statistics.terminalPositions++;
+                return -Heuristic.WIN_SCORE;
+            }
+        }
+        int count = moveOrdering == null ? getPossibleMoves(ply) : getOrderedMoves(ply, player, ttMove);
+        final int[] moves = possibleMoves[ply];
+        if (tactics != null) {
+            count = filterMoves(moves, count, columns);
+        }
+        int bestScore = -INFINITY;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            final int x = moves[i];
+            final int y = makeMove(x, player);
+            int score;
+            if (board.isWinningTile(x, y)) {
+                statistics.terminalPositions++;
+                score = Heuristic.WIN_SCORE;
+            } else if (board.isFull()) {
+                statistics.terminalPositions++;
+                score = -Heuristic.DRAW_SCORE;
+            } else if (i == 0) {
+                score = -negamax(depth - 1, ply + 1, -beta, -alpha, opponent);
+            } else {
+                // null-window search to prove this move is not better than the principal variation
+                score = -negamax(depth - 1, ply + 1, -alpha - 1, -alpha, opponent);
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, ply + 1, -beta, -alpha, opponent);
+                }
+            }
+            undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = x;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        statistics.cutoffs++;
+                        if (moveOrdering != null) {
+                            moveOrdering.cutoff(ply, board.codeOf(player), x, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (transpositionTable != null) {
+            final int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER_BOUND :
+                    (bestScore >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT);
+            transpositionTable.store(key, depth, bound, bestScore, bestMove);
+        }
+        return bestScore;
+    }
+
+    private int makeMove(int x, Player player) {
+        final int y = board.makeMove(x, player);
+        evaluator.makeMove(x, y, board.codeOf(player));
+        return y;
+    }
+
+    private void undoMove() {
+        board.undoMove();
+        evaluator.undoMove();
+    }
+
+    private int getPossibleMoves(int ply) {
+        if (possibleMoves[ply] == null) {
+            possibleMoves[ply] = new int[board.width];
+        }
+        return board.playableColumns(possibleMoves[ply]);
+    }
+
+    /**
+     * removes the moves that are not in the given bit mask of columns, keeping the order of the others
+     */
+    private static int filterMoves(int[] moves, int count, long columns) {
+        int result = 0;
+        for (int i = 0; i < count; i++) {
+            if ((columns & (1L << moves[i])) != 0) {
+                moves[result++] = moves[i];
+            }
+        }
+        return result;
+    }
+
+    private int getOrderedMoves(int ply, Player player, int bestMove) {
+        if (possibleMoves[ply] == null) {
+            possibleMoves[ply] = new int[board.width];
+        }
+        return moveOrdering.orderMoves(board, ply, board.codeOf(player), bestMove, possibleMoves[ply]);
+    }
+
+    /**
+     * searches a single root move, returns its score
+     */
+    private static final class RootMoveTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final AlphaBetaSearch search;
+        private final int column;
+        private final int depth;
+        private final AtomicInteger bestScore;
+
+        RootMoveTask(AlphaBetaSearch search, int column, int depth, AtomicInteger bestScore) {
+            this.search = search;
+            this.column = column;
+            this.depth = depth;
+            this.bestScore = bestScore;
+        }
+
+        @Override
+        protected Integer compute() {
+            final long cpuStart = SearchStatistics.currentThreadCpuTime();
+            final Board board = search.board;
+            final int y = search.makeMove(column, search.maxPlayer);
+            int score;
+            if (board.isWinningTile(column, y)) {
+                search.statistics.terminalPositions++;
+                score = Heuristic.WIN_SCORE;
+            } else if (board.isFull()) {
+                search.statistics.terminalPositions++;
+                score = -Heuristic.DRAW_SCORE;
+            } else {
+                final int best = bestScore.get();
+                if (best == -INFINITY) {
+                    score = -search.negamax(depth - 1, 1, -INFINITY, INFINITY, search.minPlayer);
+                } else {
+                    // null window just below the best score so far, a move that scores the same gets its exact score
+                    // so ties can be resolved like in the sequential search
+                    score = -search.negamax(depth - 1, 1, -best, -best + 1, search.minPlayer);
+                    if (score >= best) {
+                        score = -search.negamax(depth - 1, 1, -INFINITY, -best + 1, search.minPlayer);
+                    }
+                }
+            }
+            search.undoMove();
+            if (!search.aborted) {
+                bestScore.accumulateAndGet(score, Math::max);
+            }
+            search.statistics.cpuTimeNanos += SearchStatistics.currentThreadCpuTime() - cpuStart;
+            return score;
+        }
+    }
+}
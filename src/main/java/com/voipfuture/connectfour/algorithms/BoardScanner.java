@@ -0,0 +1,121 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.BoardGeometry;
+import com.voipfuture.connectfour.Player;
+
+/**
+ * Scans all rows, columns and diagonals of a board in a single pass and finds out everything a search needs to know
+ * about a position at its horizon: whether the game is over and, if it isn't, the heuristic score of a player.
+ *
+ * Each line is scored on its own and the results are added up: a run of at least two tiles of the player scores
+ * {@link Heuristic#PLAYER_TILE_SCORE} for each tile and {@link Heuristic#FREE_TILE_SCORE} for an empty cell at either
+ * of its ends. The runs of the opponent are only counted to find out whether the opponent has won.
+ *
+ * An instance keeps the results of its last {@link #scan(Board, int)}, so it must not be shared between threads. It does
+ * not allocate anything while scanning.
+ *
+ * @see Heuristic#getScore(Board, Player)
+ */
+public final class BoardScanner {
+
+    private int code;
+    private int score;
+    private boolean won;
+    private boolean lost;
+    private boolean full;
+
+    /**
+     * Scans a board.
+     *
+     * @param board the board, will not be modified
+     * @param code the tile code of the player to score the position for, see {@link Board#codeOf(Player)}. Must not be
+     * {@link Board#EMPTY}.
+     * @return this instance (for chaining)
+     */
+    public BoardScanner scan(Board board, int code) {
+        final BoardGeometry geometry = board.geometry;
+        final int[] lineCells = geometry.lineCells;
+        final int[] lineStarts = geometry.lineStarts;
+        final int winLength = board.winLength;
+        int score = 0;
+        boolean won = false;
+        boolean lost = false;
+        for (int line = 0; line < geometry.lineCount; line++) {
+            // current runs of both players, and whether the cell in front of the player's run is empty
+            int run = 0;
+            int opponentRun = 0;
+            boolean free = false;
+            for (int i = lineStarts[line], end = lineStarts[line + 1]; i < end; i++) {
+                final int tile = board.getCode(lineCells[i]);
+                if (tile == code) {
+                    won |= ++run >= winLength;
+                    opponentRun = 0;
+                } else {
+                    if (run >= 2) {
+                        score += runScore(run, free, tile == Board.EMPTY);
+                    }
+                    run = 0;
+                    free = tile == Board.EMPTY;
+                    if (free) {
+                        opponentRun = 0;
+                    } else {
+                        lost |= ++opponentRun >= winLength;
+                    }
+                }
+            }
+            if (run >= 2) {
+                score += runScore(run, free, false);
+            }
+        }
+        this.code = code;
+        this.score = score;
+        this.won = won;
+        this.lost = lost;
+        this.full = board.isFull();
+        return this;
+    }
+
+    private static int runScore(int length, boolean freeBefore, boolean freeAfter) {
+        return length * Heuristic.PLAYER_TILE_SCORE + (freeBefore ? Heuristic.FREE_TILE_SCORE : 0)
+                + (freeAfter ? Heuristic.FREE_TILE_SCORE : 0);
+    }
+
+    /**
+     * Returns whether the game is over, i.e. whether {@link Board#getState()} would have returned a state.
+     *
+     * @return
+     */
+    public boolean isGameOver() {
+        return won || lost || full;
+    }
+
+    /**
+     * Returns the score of the position for the player, looking only at the player's own tiles.
+     *
+     * @return {@link Heuristic#WIN_SCORE} if the player has won, otherwise {@link Heuristic#DRAW_SCORE} if the board is
+     * full, otherwise the sum of the scores of all lines
+     * @see Heuristic#getScore(Board, Player)
+     */
+    public int getScore() {
+        if (won) {
+            return Heuristic.WIN_SCORE;
+        }
+        return full ? Heuristic.DRAW_SCORE : score;
+    }
+
+    /**
+     * Returns the score of the position for the player the way a search scores it.
+     *
+     * Unlike {@link #getScore()}, a position the opponent has won scores <code>-</code>{@link Heuristic#WIN_SCORE}. If
+     * both players have won (which can't happen in a real game), the first player wins, as in {@link Board#getState()}.
+     *
+     * @return
+     */
+    public int getSearchScore() {
+        if (won && lost) {
+            return code == 1 ? Heuristic.WIN_SCORE : -Heuristic.WIN_SCORE;
+        }
+        return lost ? -Heuristic.WIN_SCORE : getScore();
+    }
+}
@@ -0,0 +1,71 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.GameState;
+import com.voipfuture.connectfour.IInputProvider;
+import com.voipfuture.connectfour.Player;
+
+import java.util.Optional;
+
+/**
+ * A computer player that plays perfectly using a {@link RetrogradeDatabase}.
+ *
+ * Looks up the value of the position after each possible move and picks a move that wins, or a move that draws if
+ * no move wins. Wins on the spot if it can. Among equally good moves, the one closest to the center is picked.
+ * Each move costs one database lookup per column, no matter how far the game is from its end.
+ *
+ * The database is configured through the system property {@value RetrogradeDatabase#DATABASE_PROPERTY}. Boards the
+ * database does not support are played by an {@link AlphaBetaPlayer} instead.
+ *
+ * Select it using <code>player.setAlgorithm("com.voipfuture.connectfour.algorithms.DatabasePlayer")</code>.
+ */
+public class DatabasePlayer implements IInputProvider {
+
+    private final AlphaBetaPlayer fallback = new AlphaBetaPlayer();
+
+    @Override
+    public Optional<InputEvent> readInput(GameState gameState) {
+        final Optional<RetrogradeDatabase> database = RetrogradeDatabase.getDefault();
+        if (!database.isPresent() || !database.get().supports(gameState.board)) {
+            return fallback.readInput(gameState);
+        }
+        final Player currentPlayer = gameState.currentPlayer();
+        final Player nextPlayer = gameState.nextPlayer();
+        final Board board = gameState.board.createCopy();
+
+        int bestMove = -1;
+        int bestValue = RetrogradeDatabase.UNKNOWN;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int x = 0; x < board.width; x++) {
+            if (!board.hasSpaceInColumn(x)) {
+                continue;
+            }
+            final int y = board.makeMove(x, currentPlayer);
+            final int value;
+            if (board.isWinningTile(x, y)) {
+                board.undoMove();
+                return Optional.of(new MoveEvent(currentPlayer, x));
+            } else if (board.isFull()) {
+                value = RetrogradeDatabase.DRAW;
+            } else {
+                // the database has the value for the opponent, who is to move next
+                final int reply = database.get().value(board, nextPlayer);
+                value = reply == RetrogradeDatabase.UNKNOWN ? RetrogradeDatabase.UNKNOWN :
+                        RetrogradeDatabase.WIN + RetrogradeDatabase.LOSS - reply;
+            }
+            board.undoMove();
+            final int distance = Math.abs(2 * x - (board.width - 1));
+            if (bestMove == -1 || value > bestValue || (value == bestValue && distance < bestDistance)) {
+                bestMove = x;
+                bestValue = value;
+                bestDistance = distance;
+            }
+        }
+        return Optional.of(new MoveEvent(currentPlayer, bestMove));
+    }
+
+    @Override
+    public void close() {
+        fallback.close();
+    }
+}
@@ -3,9 +3,6 @@ package com.voipfuture.connectfour.algorithms;
 import com.voipfuture.connectfour.GameState;
 import com.voipfuture.connectfour.IInputProvider;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 
@@ -20,17 +17,11 @@ public class DummyPlayer implements IInputProvider
     @Override
     public Optional<InputEvent> readInput(GameState gameState)
     {
-        final List<Integer> possibleMoves = new ArrayList<>();
-        for ( int col = 0 ; col < gameState.board.width ; col++ )
+        final int[] possibleMoves = new int[ gameState.board.width ];
+        final int count = gameState.board.playableColumns( possibleMoves );
+        if ( count > 0 )
         {
-            if ( gameState.board.hasSpaceInColumn( col ) ) {
-                possibleMoves.add( col );
-            }
-        }
-        if ( ! possibleMoves.isEmpty() )
-        {
-            Collections.shuffle(possibleMoves,random);
-            return Optional.of( new MoveEvent( gameState.currentPlayer(), possibleMoves.get( 0 ) ) );
+            return Optional.of( new MoveEvent( gameState.currentPlayer(), possibleMoves[ random.nextInt( count ) ] ) );
         }
         return Optional.empty();
     }
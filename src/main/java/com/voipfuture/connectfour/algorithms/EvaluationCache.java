@@ -0,0 +1,149 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size cache of position scores, so positions reached again through a different order of moves don't have to
+ * be scored again.
+ *
+ * The cache is a power-of-two sized array of <code>long</code>s with one entry per slot, the slot being chosen by the
+ * low bits of the position key. An entry holds the score in its lower 32 bits and the upper 32 bits of the position key,
+ * XOR'ed with the score, in its upper 32 bits. A new entry always replaces the old one in its slot.
+ *
+ * Entries are read and written without any locking. If a JVM splits the write of a <code>long</code> and two threads
+ * store to the same slot at the same time, the XOR'ed score makes the torn entry fail the key check like an entry for a
+ * different position. This makes the cache safe to share between any number of searching threads.
+ *
+ * The cache is lossy: a position whose key agrees with the key of a cached position in the slot bits and the upper 32
+ * bits gets the cached position's score.
+ *
+ * @see TranspositionTable#key(Board, Player)
+ */
+public final class EvaluationCache {
+
+    /** Returned by {@link #probe(long)} if there is no entry for a given key. */
+    public static final long NO_ENTRY = 0;
+
+    private final long[] entries;
+    private final int mask;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Create instance.
+     *
+     * @param sizeInMB memory budget in megabytes, the cache will use the largest power-of-two number
+     *                 of entries that fits into this budget
+     */
+    public EvaluationCache(int sizeInMB) {
+        Validate.isTrue(sizeInMB > 0, "sizeInMB must be at least 1");
+        final long bytes = sizeInMB * 1024L * 1024L;
+        final long slots = Long.highestOneBit(Math.min(bytes / 8, 1 << 30));
+        this.entries = new long[(int) slots];
+        this.mask = (int) slots - 1;
+    }
+
+    /**
+     * Looks up the entry for a given key.
+     *
+     * @param key position key
+     * @return the entry or {@link #NO_ENTRY}, use {@link #score(long)} to get the score
+     */
+    public long probe(long key) {
+        probes.increment();
+        final long entry = entries[(int) key & mask];
+        if (entry != NO_ENTRY && ((entry >>> 32) ^ (entry & 0xffffffffL)) == key >>> 32) {
+            hits.increment();
+            return entry;
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores the score of a position.
+     *
+     * @param key position key
+     * @param score the score
+     */
+    public void store(long key, int score) {
+        final long data = score & 0xffffffffL;
+        entries[(int) key & mask] = ((key >>> 32) ^ data) << 32 | data;
+    }
+
+    /**
+     * Returns the score of an entry.
+     *
+     * @param entry entry as returned by {@link #probe(long)}
+     * @return
+     */
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Removes all entries and resets the statistics.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+        probes.reset();
+        hits.reset();
+    }
+
+    /**
+     * Returns the number of entries this cache can hold.
+     *
+     * @return
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of lookups so far.
+     *
+     * @return
+     */
+    public long probes() {
+        return probes.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found an entry.
+     *
+     * @return
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no entry.
+     *
+     * @return
+     */
+    public long misses() {
+        return probes() - hits();
+    }
+
+    /**
+     * Returns the ratio of lookups that found an entry.
+     *
+     * @return hit rate between 0 and 1
+     */
+    public double hitRate() {
+        final long probeCount = probes();
+        return probeCount == 0 ? 0 : hits() / (double) probeCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EvaluationCache[ capacity=%d, probes=%d, hits=%d, misses=%d, hit rate=%.1f%% ]",
+                capacity(), probes(), hits(), misses(), 100 * hitRate());
+    }
+}
@@ -0,0 +1,42 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+
+/**
+ * Scores positions that a search does not look beyond.
+ *
+ * Implementations must be safe to use from several threads at the same time.
+ *
+ * @see Heuristic#getScore(Board, Player)
+ * @see ThreatEvaluator
+ */
+public interface Evaluator {
+
+    /**
+     * Scores the runs of tiles of a player, ignoring the opponent's tiles, see {@link Heuristic#getScore(Board, Player)}.
+     */
+    Evaluator RUNS = Heuristic::getScore;
+
+    /**
+     * Scores a position for a player.
+     *
+     * @param board the position, will not be modified
+     * @param player the player to score the position for
+     * @return {@link Heuristic#WIN_SCORE} if the player has won, {@link Heuristic#DRAW_SCORE} if the board is full,
+     * otherwise a score well below both, higher being better for the player
+     */
+    int getScore(Board board, Player player);
+
+    /**
+     * Returns the evaluator a player wants to use for boards of a given size.
+     *
+     * @param player the player
+     * @param board the board
+     * @return a {@link ThreatEvaluator} if the player {@link Player#isUsingThreatEvaluation() asks for it} and the
+     * board is small enough, {@link #RUNS} otherwise
+     */
+    static Evaluator of(Player player, Board board) {
+        return player.isUsingThreatEvaluation() && ThreatEvaluator.supports(board) ? new ThreatEvaluator(board) : RUNS;
+    }
+}
@@ -4,13 +4,23 @@ import com.voipfuture.connectfour.Board;
 import com.voipfuture.connectfour.GameState;
 import com.voipfuture.connectfour.IInputProvider;
 import com.voipfuture.connectfour.Player;
+import com.voipfuture.connectfour.SearchStatistics;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class HeuristicPlayer implements IInputProvider {
 
+    private ForkJoinPool pool;
+    private EvaluationCache evaluationCache;
+    private int evaluationCacheSize;
+    // whether the cached scores were computed by the threat evaluator
+    private boolean cachedThreatEvaluation;
+
     @Override
     public Optional<InputEvent> readInput(GameState gameState) {
         //first move on the start of a game is always random
@@ -18,12 +28,76 @@ public class HeuristicPlayer implements IInputProvider {
             int column = new Random(System.currentTimeMillis()).nextInt(gameState.board.width);
             return Optional.of(new MoveEvent(gameState.currentPlayer(), column));
         }
+        final int bookMove = OpeningBook.getDefaultMove(gameState.board, gameState.currentPlayer());
+        if (bookMove != -1) {
+            return Optional.of(new MoveEvent(gameState.currentPlayer(), bookMove));
+        }
 
         Player currentPlayer = gameState.currentPlayer();
         Player nextPlayer = gameState.nextPlayer();
+        if (currentPlayer.isUsingTactics() && Tactics.supports(gameState.board)) {
+            // no need to search if a move wins on the spot or only one move does not lose on the spot
+            final long columns = new Tactics(gameState.board).columnsToSearch(gameState.board, currentPlayer, nextPlayer);
+            if (columns < 0 || Long.bitCount(columns) == 1) {
+                return Optional.of(new MoveEvent(currentPlayer, Long.numberOfTrailingZeros(columns)));
+            }
+        }
+
+        GamePrediction gamePrediction = new GamePrediction(currentPlayer, nextPlayer, currentPlayer.maxThinkDepth(),
+                getEvaluationCache(currentPlayer), Evaluator.of(currentPlayer, gameState.board));
+        ForkJoinPool pool = getPool(currentPlayer);
+        final long start = System.nanoTime();
+        final long cpuStart = SearchStatistics.currentThreadCpuTime();
+        final MoveEvent move = pool != null ? gamePrediction.getNextMove(gameState.board, pool) :
+                gamePrediction.getNextMove(gameState.board);
+        gamePrediction.statistics.wallTimeNanos += System.nanoTime() - start;
+        gamePrediction.statistics.cpuTimeNanos += SearchStatistics.currentThreadCpuTime() - cpuStart;
+        currentPlayer.lastMoveStatistics.add(gamePrediction.statistics);
+        return Optional.of(move);
+    }
+
+    private EvaluationCache getEvaluationCache(Player player) {
+        final int size = player.evaluationCacheSize();
+        if (size != evaluationCacheSize) {
+            evaluationCache = size == 0 ? null : new EvaluationCache(size);
+            evaluationCacheSize = size;
+        }
+        if (evaluationCache != null && cachedThreatEvaluation != player.isUsingThreatEvaluation()) {
+            // the cached scores were computed by the other evaluator
+            evaluationCache.clear();
+        }
+        cachedThreatEvaluation = player.isUsingThreatEvaluation();
+        return evaluationCache;
+    }
+
+    /**
+     * Returns the cache of position scores used by the last search.
+     *
+     * @return the cache, <code>null</code> if no search has been run yet or the player does not use an evaluation cache
+     * @see Player#evaluationCacheSize()
+     */
+    public EvaluationCache evaluationCache() {
+        return evaluationCache;
+    }
 
-        GamePrediction gamePrediction = new GamePrediction(currentPlayer, nextPlayer, currentPlayer.maxThinkDepth());
-        return Optional.of(gamePrediction.getNextMove(gameState.board));
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private ForkJoinPool getPool(Player player) {
+        final int threads = player.searchThreads();
+        if (pool != null && pool.getParallelism() != threads) {
+            pool.shutdown();
+            pool = null;
+        }
+        if (pool == null && threads > 1) {
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
     }
 
     protected static final class GamePrediction {
@@ -31,11 +105,27 @@ public class HeuristicPlayer implements IInputProvider {
         final Player maxPlayer;
         final Player minPlayer;
         private final int maxThinkDepth;
+        // only updated by the thread running this prediction, the predictions of parallel tasks are added once they are done
+        final SearchStatistics statistics = new SearchStatistics();
+        // buffers for possible moves, one for each search depth
+        private final int[][] possibleMoves;
+        // scores the positions at the search horizon
+        private final BoardScanner scanner = new BoardScanner();
+        // scores of positions at the search horizon, shared by all predictions of a search, may be null
+        private final EvaluationCache cache;
+        private final Evaluator evaluator;
 
         GamePrediction(Player maxPlayer, Player minPlayer, int maxThinkDepth) {
+            this(maxPlayer, minPlayer, maxThinkDepth, null, Evaluator.RUNS);
+        }
+
+        GamePrediction(Player maxPlayer, Player minPlayer, int maxThinkDepth, EvaluationCache cache, Evaluator evaluator) {
             this.maxPlayer = maxPlayer;
             this.minPlayer = minPlayer;
             this.maxThinkDepth = maxThinkDepth;
+            this.cache = cache;
+            this.evaluator = evaluator;
+            this.possibleMoves = new int[maxThinkDepth + 2][];
         }
 
         /**
@@ -45,13 +135,16 @@ public class HeuristicPlayer implements IInputProvider {
             int bestMove = -1;
             int bestScore = 0;
 
-            ArrayList<Integer> possibleColumns = getPossibleMoves(board);
+            int count = getPossibleMoves(board, 0);
+            int[] possibleColumns = possibleMoves[0];
+            // the whole search runs on this single copy, moves are applied and taken back using makeMove()/undoMove()
             Board updatedBoard = board.createCopy();
 
-            for (Integer x : possibleColumns) {
-                int y = updatedBoard.move(x, maxPlayer);
+            for (int i = 0; i < count; i++) {
+                int x = possibleColumns[i];
+                updatedBoard.makeMove(x, maxPlayer);
                 int score = -getScore(updatedBoard, minPlayer, 0);
-                updatedBoard.clear(x, y);
+                updatedBoard.undoMove();
                 if ((bestMove == -1) || (score > bestScore)) {
                     bestMove = x;
                     bestScore = score;
@@ -60,42 +153,154 @@ public class HeuristicPlayer implements IInputProvider {
             return new MoveEvent(maxPlayer, bestMove);
         }
 
+        /**
+         * Predict next possible move like {@link #getNextMove(Board)}, but search every move and every reply to it in parallel
+         * */
+        MoveEvent getNextMove(Board board, ForkJoinPool pool) {
+            int count = getPossibleMoves(board, 0);
+            int[] possibleColumns = possibleMoves[0];
+            List<ForkJoinTask<Integer>> tasks = new ArrayList<>(count);
+            List<SearchStatistics> taskStatistics = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int x = possibleColumns[i];
+                SearchStatistics moveStatistics = new SearchStatistics();
+                taskStatistics.add(moveStatistics);
+                tasks.add(ForkJoinTask.adapt(() -> -getScoreInParallel(board, x, moveStatistics)));
+            }
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            taskStatistics.forEach(statistics::addConcurrent);
+
+            int bestMove = -1;
+            int bestScore = 0;
+            for (int i = 0; i < count; i++) {
+                int score = tasks.get(i).join();
+                if ((bestMove == -1) || (score > bestScore)) {
+                    bestMove = possibleColumns[i];
+                    bestScore = score;
+                }
+            }
+            return new MoveEvent(maxPlayer, bestMove);
+        }
+
+        /**
+         * score of the position after the maximizing player played the given column, every reply is searched by
+         * its own task on its own board copy
+         * */
+        private int getScoreInParallel(Board board, int column, SearchStatistics moveStatistics) {
+            Board updatedBoard = board.createCopy();
+            updatedBoard.makeMove(column, maxPlayer);
+            if (updatedBoard.getState().isPresent()) {
+                GamePrediction prediction = new GamePrediction(maxPlayer, minPlayer, maxThinkDepth, cache, evaluator);
+                int score = prediction.getScore(updatedBoard, minPlayer, 0);
+                moveStatistics.add(prediction.statistics);
+                return score;
+            }
+            int[] replies = new int[board.width];
+            int count = updatedBoard.playableColumns(replies);
+            List<ForkJoinTask<Integer>> tasks = new ArrayList<>(count);
+            List<GamePrediction> predictions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int x = replies[i];
+                GamePrediction prediction = new GamePrediction(maxPlayer, minPlayer, maxThinkDepth, cache, evaluator);
+                predictions.add(prediction);
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    long cpuStart = SearchStatistics.currentThreadCpuTime();
+                    Board replyBoard = updatedBoard.createCopy();
+                    replyBoard.makeMove(x, minPlayer);
+                    int score = -prediction.getScore(replyBoard, maxPlayer, 1);
+                    prediction.statistics.cpuTimeNanos += SearchStatistics.currentThreadCpuTime() - cpuStart;
+                    return score;
+                }));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            predictions.forEach(prediction -> moveStatistics.addConcurrent(prediction.statistics));
+            int bestScore = Integer.MIN_VALUE;
+            for (ForkJoinTask<Integer> task : tasks) {
+                bestScore = Math.max(bestScore, task.join());
+            }
+            return bestScore;
+        }
+
         /**
          * straightforward implementation of nega-max algorithm
          * */
         private int getScore(Board board, Player player, int depth) {
+            statistics.nodes++;
+            statistics.maxDepth = Math.max(statistics.maxDepth, depth + 1);
+            if (depth > maxThinkDepth) {
+                return getHorizonScore(board, player);
+            }
             Optional<Board.WinningCondition> state = board.getState();
             if (state.isPresent()) {
-                return state.get().isDraw ? Heuristic.DRAW_SCORE :
-                        (state.get().player().equals(player) ? Heuristic.WIN_SCORE : -Heuristic.WIN_SCORE);
-            }
-            if (depth > maxThinkDepth) {
-                return Heuristic.getScore(board, player);
+                statistics.terminalPositions++;
+                return getScore(state.get(), player);
             }
 
-            ArrayList<Integer> possibleColumns = getPossibleMoves(board);
-            Board updatedBoard = board.createCopy();
+            int count = getPossibleMoves(board, depth + 1);
+            int[] possibleColumns = possibleMoves[depth + 1];
             int bestScore = Integer.MIN_VALUE;
-            for (Integer x : possibleColumns) {
-                int y = updatedBoard.move(x, player);
-                int score = -getScore(updatedBoard, player == maxPlayer ? minPlayer : maxPlayer, depth + 1);
-                updatedBoard.clear(x, y);
+            for (int i = 0; i < count; i++) {
+                int x = possibleColumns[i];
+                board.makeMove(x, player);
+                int score = -getScore(board, player == maxPlayer ? minPlayer : maxPlayer, depth + 1);
+                board.undoMove();
                 bestScore = Math.max(bestScore, score);
             }
             return bestScore;
         }
 
         /**
-         * return a list of columns, where a new tile can be placed
+         * score of a position where the game is over
+         * */
+        private static int getScore(Board.WinningCondition state, Player player) {
+            return state.isDraw ? Heuristic.DRAW_SCORE :
+                    (state.player().equals(player) ? Heuristic.WIN_SCORE : -Heuristic.WIN_SCORE);
+        }
+
+        /**
+         * score of a position at the search horizon, taken from the cache if possible
          * */
-        private ArrayList<Integer> getPossibleMoves(Board board) {
-            ArrayList<Integer> moves = new ArrayList<>();
-            for (int x = 0; x < board.width; x++) {
-                if (board.hasSpaceInColumn(x)) {
-                    moves.add(x);
+        private int getHorizonScore(Board board, Player player) {
+            final long key = cache == null ? 0 : TranspositionTable.key(board, player);
+            if (cache != null) {
+                final long entry = cache.probe(key);
+                if (entry != EvaluationCache.NO_ENTRY) {
+                    return EvaluationCache.score(entry);
+                }
+            }
+            final int score;
+            if (evaluator == Evaluator.RUNS) {
+                // a single scan tells whether the game is over and scores the position if it isn't
+                if (scanner.scan(board, board.codeOf(player)).isGameOver()) {
+                    statistics.terminalPositions++;
+                } else {
+                    statistics.evaluations++;
                 }
+                score = scanner.getSearchScore();
+            } else {
+                Optional<Board.WinningCondition> state = board.getState();
+                if (state.isPresent()) {
+                    statistics.terminalPositions++;
+                    score = getScore(state.get(), player);
+                } else {
+                    statistics.evaluations++;
+                    score = evaluator.getScore(board, player);
+                }
+            }
+            if (cache != null) {
+                cache.store(key, score);
+            }
+            return score;
+        }
+
+        /**
+         * store the columns, where a new tile can be placed, in the move buffer of the given ply and return their number
+         * */
+        private int getPossibleMoves(Board board, int ply) {
+            if (possibleMoves[ply] == null) {
+                possibleMoves[ply] = new int[board.width];
             }
-            return moves;
+            return board.playableColumns(possibleMoves[ply]);
         }
     }
 }
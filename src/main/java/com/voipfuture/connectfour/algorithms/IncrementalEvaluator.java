@@ -0,0 +1,193 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.BoardGeometry;
+import com.voipfuture.connectfour.Player;
+
+
+/**
+ * Computes the same score as {@link Heuristic#getScore(Board, Player)}, but updates it move by move instead of
+ * scanning the whole board for every position.
+ *
+ * The heuristic scores every row, column and diagonal ("line") of the board on its own and adds up the results, so the
+ * evaluator keeps the score of each line for both players. A move only changes the four lines through its cell, so only
+ * those are scored again, and taking the move back restores their previous scores. {@link #getScore(int)} just returns
+ * the sum.
+ *
+ * The evaluator has its own copy of the tiles and has to be told about every move made on the board it was created for,
+ * see {@link #makeMove(int, int, int)} and {@link #undoMove()}.
+ */
+public final class IncrementalEvaluator {
+
+    private final int width;
+    private final int height;
+    private final int winLength;
+
+    // tile codes, indexed by x+y*width
+    private final int[] tiles;
+    private int tileCount;
+
+    // the lines of the board, shared by all evaluators for boards of the same size
+    private final int[] lineCells;
+    private final int[] lineStarts;
+    // lines through each cell, indexed by cell*4+direction
+    private final int[] cellLines;
+
+    // score of each line and whether it holds 'winLength' tiles in a row, for both tile codes (index code-1)
+    private final int[][] lineScores;
+    private final boolean[][] lineWins;
+    private final int[] totalScores = new int[2];
+    private final int[] winningLines = new int[2];
+
+    // what makeMove() changed, for undoMove(): the cell and the previous scores of its four lines
+    private final int[] movedCells;
+    private final int[] previousScores;
+    private final boolean[] previousWins;
+    private int moveCount;
+
+    // runs of tiles, one for each tile code, while scoring a line
+    private final int[] runLength = new int[2];
+    private final boolean[] runAfterEmpty = new boolean[2];
+    private final int[] lineScore = new int[2];
+    private final boolean[] lineWin = new boolean[2];
+
+    /**
+     * Create an evaluator for the current position of a board.
+     *
+     * @param board the board, will not be modified
+     */
+    public IncrementalEvaluator(Board board) {
+        this.width = board.width;
+        this.height = board.height;
+        this.winLength = board.winLength;
+        final int cells = width * height;
+        this.tiles = new int[cells];
+        this.movedCells = new int[cells];
+        this.previousScores = new int[cells * BoardGeometry.DIRECTIONS * 2];
+        this.previousWins = new boolean[cells * BoardGeometry.DIRECTIONS * 2];
+
+        final BoardGeometry geometry = board.geometry;
+        this.lineCells = geometry.lineCells;
+        this.lineStarts = geometry.lineStarts;
+        this.cellLines = geometry.cellLines;
+        final int lineCount = geometry.lineCount;
+        this.lineScores = new int[2][lineCount];
+        this.lineWins = new boolean[2][lineCount];
+
+        for (int cell = 0; cell < cells; cell++) {
+            tiles[cell] = board.getCode(cell);
+            if (tiles[cell] != Board.EMPTY) {
+                tileCount++;
+            }
+        }
+        for (int line = 0; line < lineCount; line++) {
+            scoreLine(line);
+            for (int code = 0; code < 2; code++) {
+                lineScores[code][line] = lineScore[code];
+                lineWins[code][line] = lineWin[code];
+                totalScores[code] += lineScore[code];
+                winningLines[code] += lineWin[code] ? 1 : 0;
+            }
+        }
+    }
+
+    /**
+     * Updates the score after a tile has been put on the board.
+     *
+     * @param x column of the tile
+     * @param y row of the tile, 0 being the top row as in {@link Board#makeMove(int, Player)}
+     * @param code the tile code of the player, see {@link Board#codeOf(Player)}
+     */
+    public void makeMove(int x, int y, int code) {
+        final int cell = x + y * width;
+        tiles[cell] = code;
+        tileCount++;
+        movedCells[moveCount] = cell;
+        int history = moveCount * BoardGeometry.DIRECTIONS * 2;
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+            final int line = cellLines[cell * BoardGeometry.DIRECTIONS + direction];
+            scoreLine(line);
+            for (int i = 0; i < 2; i++, history++) {
+                previousScores[history] = lineScores[i][line];
+                previousWins[history] = lineWins[i][line];
+                totalScores[i] += lineScore[i] - lineScores[i][line];
+                winningLines[i] += (lineWin[i] ? 1 : 0) - (lineWins[i][line] ? 1 : 0);
+                lineScores[i][line] = lineScore[i];
+                lineWins[i][line] = lineWin[i];
+            }
+        }
+        moveCount++;
+    }
+
+    /**
+     * Restores the score before the last {@link #makeMove(int, int, int)}.
+     */
+    public void undoMove() {
+        moveCount--;
+        final int cell = movedCells[moveCount];
+        tiles[cell] = Board.EMPTY;
+        tileCount--;
+        int history = moveCount * BoardGeometry.DIRECTIONS * 2;
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+            final int line = cellLines[cell * BoardGeometry.DIRECTIONS + direction];
+            for (int i = 0; i < 2; i++, history++) {
+                totalScores[i] += previousScores[history] - lineScores[i][line];
+                winningLines[i] += (previousWins[history] ? 1 : 0) - (lineWins[i][line] ? 1 : 0);
+                lineScores[i][line] = previousScores[history];
+                lineWins[i][line] = previousWins[history];
+            }
+        }
+    }
+
+    /**
+     * Returns the score of the current position.
+     *
+     * @param code the tile code of the player to score the position for
+     * @return the same score as {@link Heuristic#getScore(Board, Player)}
+     */
+    public int getScore(int code) {
+        if (winningLines[code - 1] > 0) {
+            return Heuristic.WIN_SCORE;
+        }
+        if (tileCount == tiles.length) {
+            return Heuristic.DRAW_SCORE;
+        }
+        return totalScores[code - 1];
+    }
+
+    /**
+     * scores a line for both players like the heuristic does: a run of at least two tiles of a player scores for each tile
+     * and for the empty cells at both of its ends
+     */
+    private void scoreLine(int line) {
+        for (int i = 0; i < 2; i++) {
+            runLength[i] = 0;
+            runAfterEmpty[i] = false;
+            lineScore[i] = 0;
+            lineWin[i] = false;
+        }
+        for (int cell = lineStarts[line], end = lineStarts[line + 1]; cell < end; cell++) {
+            final int tile = tiles[lineCells[cell]];
+            for (int i = 0; i < 2; i++) {
+                if (tile == i + 1) {
+                    if (++runLength[i] >= winLength) {
+                        lineWin[i] = true;
+                    }
+                } else {
+                    if (runLength[i] >= 2) {
+                        lineScore[i] += runLength[i] * Heuristic.PLAYER_TILE_SCORE
+                                + (runAfterEmpty[i] ? Heuristic.FREE_TILE_SCORE : 0)
+                                + (tile == Board.EMPTY ? Heuristic.FREE_TILE_SCORE : 0);
+                    }
+                    runLength[i] = 0;
+                    runAfterEmpty[i] = tile == Board.EMPTY;
+                }
+            }
+        }
+        for (int i = 0; i < 2; i++) {
+            if (runLength[i] >= 2) {
+                lineScore[i] += runLength[i] * Heuristic.PLAYER_TILE_SCORE + (runAfterEmpty[i] ? Heuristic.FREE_TILE_SCORE : 0);
+            }
+        }
+    }
+}
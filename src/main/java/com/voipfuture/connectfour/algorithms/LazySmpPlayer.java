@@ -0,0 +1,117 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.GameState;
+import com.voipfuture.connectfour.IInputProvider;
+import com.voipfuture.connectfour.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A computer player that searches on several threads using Lazy SMP.
+ *
+ * Every thread runs its own iterative deepening {@link AlphaBetaSearch alpha-beta search} of the current position and
+ * all threads share one {@link TranspositionTable}. Threads do not talk to each other except through that table, but every
+ * position one thread stores there is a position the others do not have to search again. Each helper thread starts at a
+ * different root move and keeps its own move ordering, so the threads quickly spread out over the tree. Helpers are not
+ * limited in depth and run ahead of the main thread, filling the table with results of deeper searches. The move is
+ * always taken from the main thread, which runs on the calling thread; the helpers are stopped as soon as it is done.
+ *
+ * Uses {@link Player#searchThreads()} threads and searches as deep as {@link AlphaBetaPlayer} would, either to
+ * {@link Player#maxThinkDepth()} or for {@link Player#thinkTime()} milliseconds. Since the helpers may store results
+ * of deeper searches in the table, the chosen move is not always the one {@link HeuristicPlayer} would pick.
+ * Without a transposition table ({@link Player#transpositionTableSize()} of 0) helpers could only repeat the main
+ * thread's work, so the search then runs on the calling thread only.
+ *
+ * Select it using <code>player.setAlgorithm("com.voipfuture.connectfour.algorithms.LazySmpPlayer")</code>.
+ */
+public class LazySmpPlayer implements IInputProvider {
+
+    private TranspositionTable transpositionTable;
+    private int transpositionTableSize;
+    private ForkJoinPool pool;
+
+    @Override
+    public Optional<InputEvent> readInput(GameState gameState) {
+        //first move on the start of a game is always random
+        if (gameState.board.isEmpty()) {
+            int column = new Random(System.currentTimeMillis()).nextInt(gameState.board.width);
+            return Optional.of(new MoveEvent(gameState.currentPlayer(), column));
+        }
+        final int bookMove = OpeningBook.getDefaultMove(gameState.board, gameState.currentPlayer());
+        if (bookMove != -1) {
+            return Optional.of(new MoveEvent(gameState.currentPlayer(), bookMove));
+        }
+
+        final Board board = gameState.board;
+        final Player currentPlayer = gameState.currentPlayer();
+        final Player nextPlayer = gameState.nextPlayer();
+        final TranspositionTable table = getTranspositionTable(currentPlayer);
+        final int emptyTiles = board.width * board.height - board.tileCount();
+        final int maxDepth = currentPlayer.thinkTime() > 0 ? emptyTiles : Math.min(currentPlayer.maxThinkDepth() + 2, emptyTiles);
+
+        // helpers only help through the table
+        final int helperCount = table == null ? 0 : currentPlayer.searchThreads() - 1;
+        final List<AlphaBetaSearch> helpers = new ArrayList<>(helperCount);
+        final List<ForkJoinTask<Integer>> tasks = new ArrayList<>(helperCount);
+        for (int i = 1; i <= helperCount; i++) {
+            final AlphaBetaSearch helper = new AlphaBetaSearch(board, currentPlayer, nextPlayer);
+            helper.setTranspositionTable(table);
+            helper.setRootMoveOffset(i);
+            helper.setTactics(currentPlayer.isUsingTactics());
+            helpers.add(helper);
+            tasks.add(getPool(helperCount).submit(() -> helper.searchIteratively(emptyTiles, 0)));
+        }
+
+        final AlphaBetaSearch search = new AlphaBetaSearch(board, currentPlayer, nextPlayer);
+        search.setTranspositionTable(table);
+        search.setTactics(currentPlayer.isUsingTactics());
+        final int column;
+        try {
+            column = search.searchIteratively(maxDepth, currentPlayer.thinkTime());
+        } finally {
+            helpers.forEach(AlphaBetaSearch::stop);
+            tasks.forEach(ForkJoinTask::join);
+        }
+        currentPlayer.lastSearchDepth = search.completedDepth();
+        currentPlayer.lastMoveStatistics.add(search.statistics());
+        helpers.forEach(helper -> currentPlayer.lastMoveStatistics.addConcurrent(helper.statistics()));
+        return Optional.of(new MoveEvent(currentPlayer, column));
+    }
+
+    private TranspositionTable getTranspositionTable(Player player) {
+        final int size = player.transpositionTableSize();
+        if (size != transpositionTableSize) {
+            transpositionTable = size == 0 ? null : new TranspositionTable(size);
+            transpositionTableSize = size;
+        }
+        if (transpositionTable != null) {
+            transpositionTable.newSearch();
+        }
+        return transpositionTable;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private ForkJoinPool getPool(int threads) {
+        if (pool != null && pool.getParallelism() != threads) {
+            pool.shutdown();
+            pool = null;
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+}
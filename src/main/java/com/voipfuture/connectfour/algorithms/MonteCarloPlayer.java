@@ -0,0 +1,130 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.GameState;
+import com.voipfuture.connectfour.IInputProvider;
+import com.voipfuture.connectfour.Player;
+import com.voipfuture.connectfour.SearchStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A computer player using Monte Carlo tree search.
+ *
+ * Instead of evaluating positions with a heuristic, the player plays random games from the current position and
+ * spends more and more of them on the moves that win most often, see {@link MonteCarloTree}. It does not have a
+ * search horizon, so it also works on boards that are too wide for {@link HeuristicPlayer}, and it plays better the more time
+ * and cores it gets.
+ *
+ * The player thinks for {@link Player#thinkTime()} milliseconds (one second if no think time is set), using
+ * {@link Player#searchThreads()} threads that share one tree. The tree holds as many nodes as fit into
+ * {@link Player#transpositionTableSize()} megabytes and is kept from one move to the next.
+ *
+ * Select it using <code>player.setAlgorithm("com.voipfuture.connectfour.algorithms.MonteCarloPlayer")</code>.
+ */
+public class MonteCarloPlayer implements IInputProvider {
+
+    // think time if the player has none
+    private static final int DEFAULT_THINK_TIME = 1000;
+
+    private final SplittableRandom random = new SplittableRandom();
+    private MonteCarloTree tree;
+    private int treeSize;
+    private ForkJoinPool pool;
+
+    @Override
+    public Optional<InputEvent> readInput(GameState gameState) {
+        //first move on the start of a game is always random
+        if (gameState.board.isEmpty()) {
+            int column = new Random(System.currentTimeMillis()).nextInt(gameState.board.width);
+            return Optional.of(new MoveEvent(gameState.currentPlayer(), column));
+        }
+        final int bookMove = OpeningBook.getDefaultMove(gameState.board, gameState.currentPlayer());
+        if (bookMove != -1) {
+            return Optional.of(new MoveEvent(gameState.currentPlayer(), bookMove));
+        }
+
+        final Player currentPlayer = gameState.currentPlayer();
+        final MonteCarloTree tree = getTree(currentPlayer);
+        if (!tree.advanceTo(gameState.board, currentPlayer)) {
+            tree.reset(gameState.board, currentPlayer, gameState.nextPlayer());
+        }
+
+        final int thinkTime = currentPlayer.thinkTime() > 0 ? currentPlayer.thinkTime() : DEFAULT_THINK_TIME;
+        final long deadline = System.nanoTime() + thinkTime * 1_000_000L;
+        final int helperCount = currentPlayer.searchThreads() - 1;
+        final List<ForkJoinTask<SearchStatistics>> helpers = new ArrayList<>(helperCount);
+        for (int i = 0; i < helperCount; i++) {
+            final SplittableRandom helperRandom = random.split();
+            helpers.add(getPool(helperCount).submit(() -> search(tree, deadline, helperRandom)));
+        }
+        final SearchStatistics statistics = search(tree, deadline, random);
+        for (ForkJoinTask<SearchStatistics> helper : helpers) {
+            statistics.addConcurrent(helper.join());
+        }
+        currentPlayer.lastMoveStatistics.add(statistics);
+
+        int column = tree.bestMove();
+        if (column == -1) {
+            final int[] columns = new int[gameState.board.width];
+            column = columns[random.nextInt(gameState.board.playableColumns(columns))];
+        } else {
+            // keep the tree below our move, the opponent's reply is added on the next call
+            tree.advanceTo(createPositionAfter(gameState, column), gameState.nextPlayer());
+        }
+        return Optional.of(new MoveEvent(currentPlayer, column));
+    }
+
+    /**
+     * runs simulations until the deadline, counting each simulation as a node
+     */
+    private static SearchStatistics search(MonteCarloTree tree, long deadline, SplittableRandom random) {
+        final SearchStatistics statistics = new SearchStatistics();
+        final long start = System.nanoTime();
+        final long cpuStart = SearchStatistics.currentThreadCpuTime();
+        statistics.nodes = tree.search(deadline, random);
+        statistics.wallTimeNanos = System.nanoTime() - start;
+        statistics.cpuTimeNanos = SearchStatistics.currentThreadCpuTime() - cpuStart;
+        return statistics;
+    }
+
+    private static Board createPositionAfter(GameState gameState, int column) {
+        final Board board = gameState.board.createCopy();
+        board.makeMove(column, gameState.currentPlayer());
+        return board;
+    }
+
+    private MonteCarloTree getTree(Player player) {
+        final int size = Math.max(1, player.transpositionTableSize());
+        if (tree == null || size != treeSize) {
+            tree = new MonteCarloTree((int) Math.min(Integer.MAX_VALUE - 8, size * (1L << 20) / MonteCarloTree.NODE_SIZE));
+            treeSize = size;
+        }
+        return tree;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private ForkJoinPool getPool(int threads) {
+        if (pool != null && pool.getParallelism() != threads) {
+            pool.shutdown();
+            pool = null;
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+}
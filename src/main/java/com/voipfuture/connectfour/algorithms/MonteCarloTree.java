@@ -0,0 +1,419 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+import org.apache.commons.lang3.Validate;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Search tree for Monte Carlo tree search (UCT).
+ *
+ * Nodes live in a fixed-size arena of primitive arrays instead of one object per node, a node is just an index into these
+ * arrays. The children of a node are stored next to each other, so a node only needs to know its first child and the number
+ * of children. Once the arena is full, the tree stops growing and leaf nodes are simply simulated more often.
+ *
+ * Several threads can {@link #search(long, SplittableRandom) search} the tree at the same time. A thread counts its visit
+ * as soon as it selects a node but adds the result only when its playout is done, so until then the node looks worse to other
+ * threads ("virtual loss") and they tend to explore other parts of the tree.
+ *
+ * After a move has been played, {@link #advanceTo(Board, Player)} keeps the part of the tree below the new position, so the
+ * simulations of earlier moves are not lost.
+ */
+public final class MonteCarloTree {
+
+    private static final int UNEXPANDED = -1;
+    private static final int EXPANDING = -2;
+
+    // outcome of the move leading to a node, from the point of view of the player who made it
+    private static final byte ONGOING = 0;
+    private static final byte WIN = 1;
+    private static final byte DRAW = 2;
+
+    // exploration constant of the UCB1 formula
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    /**
+     * Approximate number of bytes a node needs, see {@link #MonteCarloTree(int)}.
+     */
+    public static final int NODE_SIZE = 2 * 19 + 4;
+
+    private Arena arena;
+    private Arena spare;
+
+    private Board board;
+    private Player player;
+    private Player opponent;
+
+    /**
+     * Create instance.
+     *
+     * @param capacity maximum number of nodes, the tree allocates two arenas of this size to be able to keep the
+     *                 subtree of a move, about {@link #NODE_SIZE} bytes per node in total
+     * @see #size()
+     */
+    public MonteCarloTree(int capacity) {
+        Validate.isTrue(capacity > 1, "capacity must be at least 2");
+        this.arena = new Arena(capacity);
+        this.spare = new Arena(capacity);
+    }
+
+    /**
+     * Discards the tree and starts a new one.
+     *
+     * @param board the position to search
+     * @param player the player that is to move
+     * @param opponent the opponent
+     */
+    public void reset(Board board, Player player, Player opponent) {
+        Validate.notNull(board, "board must not be null");
+        Validate.notNull(player, "player must not be null");
+        Validate.notNull(opponent, "opponent must not be null");
+        Validate.isTrue(board.width <= Byte.MAX_VALUE, "Board is too wide");
+        this.board = board.createCopy();
+        if (this.board.codeOf(player) == Board.EMPTY || this.board.codeOf(opponent) == Board.EMPTY) {
+            this.board.setPlayers(player, opponent);
+        }
+        this.player = player;
+        this.opponent = opponent;
+        arena.clear();
+        arena.allocate(1);
+        arena.init(0, -1, ONGOING);
+    }
+
+    /**
+     * Moves the root of the tree to a position one or two half-moves below the current root, keeping all simulations
+     * of that position.
+     *
+     * @param position the new position
+     * @param toMove the player that is to move in the new position
+     * @return <code>true</code> on success, <code>false</code> if the position is not in the tree and the tree needs to be
+     *         {@link #reset(Board, Player, Player) reset}
+     */
+    public boolean advanceTo(Board position, Player toMove) {
+        if (board == null || position.width != board.width || position.height != board.height
+                || position.winLength != board.winLength) {
+            return false;
+        }
+        final int plies = position.tileCount() - board.tileCount();
+        if (plies < 1 || plies > 2 || !toMove.equals(plies == 1 ? opponent : player)) {
+            return false;
+        }
+        final int node = find(0, plies, player, position.hash());
+        if (node == -1) {
+            return false;
+        }
+        spare.clear();
+        spare.copySubtree(arena, node);
+        final Arena tmp = arena;
+        arena = spare;
+        spare = tmp;
+        board = position.createCopy();
+        if (plies == 1) {
+            final Player tmpPlayer = player;
+            player = opponent;
+            opponent = tmpPlayer;
+        }
+        return true;
+    }
+
+    /**
+     * depth-first search for the node at the given depth below 'node' whose position has the given hash
+     */
+    private int find(int node, int depth, Player toMove, long hash) {
+        if (depth == 0) {
+            return board.hash() == hash ? node : -1;
+        }
+        final int first = arena.firstChild.get(node);
+        if (first < 0) {
+            return -1;
+        }
+        final Player next = toMove == player ? opponent : player;
+        for (int child = first; child < first + arena.childCount[node]; child++) {
+            board.makeMove(arena.move[child], toMove);
+            final int result = find(child, depth - 1, next, hash);
+            board.undoMove();
+            if (result != -1) {
+                return result;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Runs simulations until the deadline has passed.
+     *
+     * May be called by several threads at the same time, each one with its own random number generator.
+     *
+     * @param deadline deadline as returned by {@link System#nanoTime()}
+     * @param random random number generator for the playouts
+     * @return number of simulations run by this call
+     */
+    public long search(long deadline, SplittableRandom random) {
+        final Board copy = board.createCopy();
+        final int[] columns = new int[copy.width];
+        final PlayoutEngine engine = PlayoutEngine.supports(copy) ? new PlayoutEngine(copy, random.nextLong()) : null;
+        long count = 0;
+        do {
+            for (int i = 0; i < 64; i++) {
+                simulate(copy, columns, engine, random);
+            }
+            count += 64;
+        } while (System.nanoTime() < deadline);
+        return count;
+    }
+
+    /**
+     * Returns the most visited move of the root position.
+     *
+     * @return column of the move or -1 if no move is possible or has been simulated
+     */
+    public int bestMove() {
+        final int first = arena.firstChild.get(0);
+        int bestMove = -1;
+        int bestVisits = 0;
+        for (int child = first; first >= 0 && child < first + arena.childCount[0]; child++) {
+            if (arena.outcome[child] == WIN) {
+                return arena.move[child];
+            }
+            final int visits = arena.visits.get(child);
+            if (visits > bestVisits) {
+                bestVisits = visits;
+                bestMove = arena.move[child];
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Returns the number of simulations that went through the root position.
+     *
+     * @return
+     */
+    public int rootVisits() {
+        return arena.visits.get(0);
+    }
+
+    /**
+     * Returns the number of nodes in the tree.
+     *
+     * @return
+     */
+    public int size() {
+        return Math.min(arena.size.get(), arena.capacity);
+    }
+
+    /**
+     * one simulation: select a leaf, expand it, play a random game from it and update all nodes on the way
+     */
+    private void simulate(Board board, int[] columns, PlayoutEngine engine, SplittableRandom random) {
+        int node = 0;
+        int depth = 0;
+        Player toMove = player;
+        arena.visits.incrementAndGet(node);
+
+        int result; // 2 for a win, 1 for a draw and 0 for a loss of the player that is to move at 'node'
+        while (true) {
+            if (arena.outcome[node] != ONGOING) {
+                // the player that made the move leading here won or it is a draw
+                result = arena.outcome[node] == WIN ? 0 : 1;
+                break;
+            }
+            int first = arena.firstChild.get(node);
+            if (first == UNEXPANDED && (node == 0 || arena.visits.get(node) > 1)) {
+                first = expand(node, board, toMove, columns);
+            }
+            if (first < 0) {
+                result = engine != null ? engine.playout(board.positionKey(toMove)) : playout(board, toMove, columns, random);
+                break;
+            }
+            node = select(node, first);
+            // counting the visit now makes the node look worse to other threads until the result is in (virtual loss)
+            arena.visits.incrementAndGet(node);
+            board.makeMove(arena.move[node], toMove);
+            toMove = toMove == player ? opponent : player;
+            depth++;
+        }
+
+        // update the nodes on the path, the score of a node counts for the player who made the move leading to it
+        for (; depth > 0; depth--) {
+            result = 2 - result;
+            arena.score.addAndGet(node, result);
+            node = arena.parent[node];
+            board.undoMove();
+        }
+    }
+
+    /**
+     * creates all children of a node, returns the first child or a negative value if the node could not be expanded
+     */
+    private int expand(int node, Board board, Player toMove, int[] columns) {
+        if (!arena.firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+            return arena.firstChild.get(node);
+        }
+        final int count = board.playableColumns(columns);
+        final int first = arena.allocate(count);
+        if (first == -1) {
+            arena.firstChild.set(node, UNEXPANDED);
+            return UNEXPANDED;
+        }
+        for (int i = 0; i < count; i++) {
+            final int x = columns[i];
+            final int y = board.makeMove(x, toMove);
+            final byte outcome = board.isWinningTile(x, y) ? WIN : (board.isFull() ? DRAW : ONGOING);
+            board.undoMove();
+            arena.init(first + i, node, outcome);
+            arena.move[first + i] = (byte) x;
+        }
+        arena.childCount[node] = (byte) count;
+        // publishes the children to other threads
+        arena.firstChild.set(node, first);
+        return first;
+    }
+
+    /**
+     * selects the child with the highest upper confidence bound (UCB1), unvisited and winning moves come first
+     */
+    private int select(int node, int first) {
+        final double logVisits = Math.log(Math.max(1, arena.visits.get(node)));
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = first; child < first + arena.childCount[node]; child++) {
+            if (arena.outcome[child] == WIN) {
+                return child;
+            }
+            final int visits = arena.visits.get(child);
+            if (visits == 0) {
+                return child;
+            }
+            final double value = arena.score.get(child) / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * plays random moves on boards too large for {@link PlayoutEngine} until the game is over, returns 2 for a win,
+     * 1 for a draw and 0 for a loss of the given player
+     */
+    private static int playout(Board board, Player toMove, int[] columns, SplittableRandom random) {
+        final Player first = toMove;
+        final Player second = board.player(3 - board.codeOf(toMove));
+        int moves = 0;
+        int result = 1;
+        Player current = first;
+        while (true) {
+            final int count = board.playableColumns(columns);
+            if (count == 0) {
+                break;
+            }
+            final int x = columns[random.nextInt(count)];
+            final int y = board.makeMove(x, current);
+            moves++;
+            if (board.isWinningTile(x, y)) {
+                result = current == first ? 2 : 0;
+                break;
+            }
+            current = current == first ? second : first;
+        }
+        for (; moves > 0; moves--) {
+            board.undoMove();
+        }
+        return result;
+    }
+
+    /**
+     * the nodes, stored as arrays indexed by node
+     */
+    private static final class Arena {
+
+        private final int capacity;
+        private final AtomicInteger size = new AtomicInteger();
+
+        private final int[] parent;
+        private final byte[] move;
+        private final byte[] childCount;
+        private final byte[] outcome;
+        private final AtomicIntegerArray firstChild;
+        private final AtomicIntegerArray visits;
+        private final AtomicIntegerArray score;
+
+        Arena(int capacity) {
+            this.capacity = capacity;
+            this.parent = new int[capacity];
+            this.move = new byte[capacity];
+            this.childCount = new byte[capacity];
+            this.outcome = new byte[capacity];
+            this.firstChild = new AtomicIntegerArray(capacity);
+            this.visits = new AtomicIntegerArray(capacity);
+            this.score = new AtomicIntegerArray(capacity);
+        }
+
+        void clear() {
+            size.set(0);
+        }
+
+        /**
+         * returns the first of 'count' new nodes or -1 if the arena is full
+         */
+        int allocate(int count) {
+            while (true) {
+                final int first = size.get();
+                if (first + count > capacity) {
+                    return -1;
+                }
+                if (size.compareAndSet(first, first + count)) {
+                    return first;
+                }
+            }
+        }
+
+        void init(int node, int parentNode, byte nodeOutcome) {
+            parent[node] = parentNode;
+            move[node] = 0;
+            childCount[node] = 0;
+            outcome[node] = nodeOutcome;
+            firstChild.set(node, UNEXPANDED);
+            visits.set(node, 0);
+            score.set(node, 0);
+        }
+
+        /**
+         * copies the subtree below a node of another arena into this (empty) arena, breadth-first so that
+         * children stay next to each other
+         */
+        void copySubtree(Arena from, int root) {
+            final int[] sources = new int[capacity];
+            allocate(1);
+            copyNode(from, root, 0, -1);
+            sources[0] = root;
+            for (int node = 0; node < size.get(); node++) {
+                final int source = sources[node];
+                final int first = from.firstChild.get(source);
+                if (first < 0) {
+                    continue;
+                }
+                final int count = from.childCount[source];
+                final int copy = allocate(count);
+                childCount[node] = (byte) count;
+                firstChild.set(node, copy);
+                for (int i = 0; i < count; i++) {
+                    copyNode(from, first + i, copy + i, node);
+                    sources[copy + i] = first + i;
+                }
+            }
+        }
+
+        private void copyNode(Arena from, int source, int target, int parentNode) {
+            init(target, parentNode, from.outcome[source]);
+            move[target] = from.move[source];
+            visits.set(target, from.visits.get(source));
+            score.set(target, from.score.get(source));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Sorts the possible moves in a position so that the moves most likely to be best are searched first,
+ * which is what makes alpha-beta pruning effective.
+ *
+ * Moves are ranked by
+ * <ol>
+ *     <li>the best move found by an earlier search of the same position (usually taken from a {@link TranspositionTable}),</li>
+ *     <li>killer moves: the last two moves that caused a cutoff at the same ply in a sibling position,</li>
+ *     <li>the history heuristic: how often (weighted by remaining depth) a move caused a cutoff for the same player anywhere in the tree,</li>
+ *     <li>the distance to the center column, central columns first.</li>
+ * </ol>
+ *
+ * Instances are not thread-safe, each searching thread needs its own instance.
+ */
+public final class MoveOrdering {
+
+    private static final int BEST_MOVE_SCORE = Integer.MAX_VALUE;
+    private static final int KILLER_SCORE = 1 << 30;
+    private static final int MAX_HISTORY_SCORE = 1 << 24;
+
+    private final int width;
+    private final int[] centerScores;
+    // history scores, indexed by [tile code - 1][column]
+    private final int[][] history;
+    // two killer moves per ply, indexed by [ply][slot]
+    private int[][] killers = new int[0][];
+    private final int[] scores;
+
+    /**
+     * Create instance.
+     *
+     * @param width width of the board the moves are for
+     */
+    public MoveOrdering(int width) {
+        Validate.isTrue(width > 0, "width must be positive");
+        this.width = width;
+        this.centerScores = new int[width];
+        for (int x = 0; x < width; x++) {
+            centerScores[x] = width - Math.abs(2 * x - (width - 1));
+        }
+        this.history = new int[2][width];
+        this.scores = new int[width];
+    }
+
+    /**
+     * Stores all possible moves in a position in the given buffer, best moves first.
+     *
+     * @param board the position
+     * @param ply distance (in half-moves) from the root of the search
+     * @param player tile code of the player that is to move
+     * @param bestMove best move known from an earlier search or -1
+     * @param moves buffer to store the columns in, needs to have at least {@link Board#width} elements
+     * @return number of moves stored in the buffer
+     */
+    public int orderMoves(Board board, int ply, int player, int bestMove, int[] moves) {
+        final int count = board.playableColumns(moves);
+        final int[] killerMoves = killers(ply);
+        final int[] historyScores = history[player - 1];
+        for (int i = 0; i < count; i++) {
+            final int x = moves[i];
+            final int score;
+            if (x == bestMove) {
+                score = BEST_MOVE_SCORE;
+            } else if (x == killerMoves[0]) {
+                score = KILLER_SCORE + 1;
+            } else if (x == killerMoves[1]) {
+                score = KILLER_SCORE;
+            } else {
+                score = historyScores[x] * width + centerScores[x];
+            }
+            // insertion sort, descending by score
+            int j = i;
+            for (; j > 0 && scores[j - 1] < score; j--) {
+                scores[j] = scores[j - 1];
+                moves[j] = moves[j - 1];
+            }
+            scores[j] = score;
+            moves[j] = x;
+        }
+        return count;
+    }
+
+    /**
+     * Records a move that caused a beta cutoff.
+     *
+     * @param ply distance (in half-moves) from the root of the search
+     * @param player tile code of the player that made the move
+     * @param column the move
+     * @param depth remaining search depth (in half-moves) of the position the move was made in
+     */
+    public void cutoff(int ply, int player, int column, int depth) {
+        final int[] killerMoves = killers(ply);
+        if (killerMoves[0] != column) {
+            killerMoves[1] = killerMoves[0];
+            killerMoves[0] = column;
+        }
+        final int[] historyScores = history[player - 1];
+        historyScores[column] += depth * depth;
+        if (historyScores[column] > MAX_HISTORY_SCORE) {
+            for (int i = 0; i < 2; i++) {
+                for (int x = 0; x < width; x++) {
+                    history[i][x] /= 2;
+                }
+            }
+        }
+    }
+
+    private int[] killers(int ply) {
+        if (ply >= killers.length) {
+            final int[][] tmp = new int[ply + 16][];
+            System.arraycopy(killers, 0, tmp, 0, killers.length);
+            for (int i = killers.length; i < tmp.length; i++) {
+                tmp[i] = new int[]{-1, -1};
+            }
+            killers = tmp;
+        }
+        return killers[ply];
+    }
+}
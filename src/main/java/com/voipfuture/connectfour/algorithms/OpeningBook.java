@@ -0,0 +1,246 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Read-only opening book that maps positions to the best move and its score.
+ *
+ * The book is a file written by {@link OpeningBookGenerator} that is memory-mapped when opened, looking up a position
+ * is a binary search over the mapped file and does not allocate any memory. The file starts with a header
+ * followed by fixed-size records sorted by {@link Board#positionKey(Player) position key}:
+ *
+ * <pre>
+ * header:  int magic, int version, int width, int height, int winLength, int plies, long record count
+ * record:  long position key, int best move, int score
+ * </pre>
+ *
+ * Mirrored positions share one record, so only the position with the smaller key is stored. All numbers are big-endian.
+ *
+ * The book used by the computer players is configured through the system property {@value #BOOK_PROPERTY},
+ * see {@link #getDefault()}.
+ */
+public final class OpeningBook {
+
+    /**
+     * System property holding the path to the default opening book.
+     */
+    public static final String BOOK_PROPERTY = "connectfour.openingBook";
+
+    static final int MAGIC = 0x43344f42; // 'C4OB'
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 16;
+
+    private static volatile Optional<OpeningBook> defaultBook;
+
+    private final ByteBuffer data;
+    private final int width;
+    private final int height;
+    private final int winLength;
+    private final int plies;
+    private final int recordCount;
+
+    private OpeningBook(ByteBuffer data) {
+        this.data = data;
+        Validate.isTrue(data.capacity() >= HEADER_SIZE && data.getInt(0) == MAGIC, "Not an opening book");
+        Validate.isTrue(data.getInt(4) == VERSION, "Unsupported opening book version %d", data.getInt(4));
+        this.width = data.getInt(8);
+        this.height = data.getInt(12);
+        this.winLength = data.getInt(16);
+        this.plies = data.getInt(20);
+        final long count = data.getLong(24);
+        Validate.isTrue(count >= 0 && HEADER_SIZE + count * RECORD_SIZE == data.capacity(),
+                "Opening book is truncated or corrupt");
+        this.recordCount = (int) count;
+    }
+
+    /**
+     * Opens an opening book file.
+     *
+     * @param file file to open
+     * @return the opening book
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid opening book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        Validate.notNull(file, "file must not be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Validate.isTrue(channel.size() <= Integer.MAX_VALUE, "Opening book is too large");
+            // the mapping stays valid after the channel has been closed
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(buffer);
+        }
+    }
+
+    /**
+     * Returns the opening book configured through the system property {@value #BOOK_PROPERTY}.
+     *
+     * The book is opened on the first call, if it cannot be opened an error is printed and no book is used.
+     *
+     * @return the opening book, empty if no book is configured or it could not be opened
+     */
+    public static Optional<OpeningBook> getDefault() {
+        Optional<OpeningBook> result = defaultBook;
+        if (result == null) {
+            synchronized (OpeningBook.class) {
+                result = defaultBook;
+                if (result == null) {
+                    result = Optional.empty();
+                    final String path = System.getProperty(BOOK_PROPERTY);
+                    if (path != null && !path.isBlank()) {
+                        try {
+                            result = Optional.of(open(Paths.get(path)));
+                            System.out.println("Using opening book " + path + " (" + result.get().recordCount + " positions)");
+                        } catch (IOException | IllegalArgumentException e) {
+                            System.err.println("Failed to open opening book " + path + ": " + e.getMessage());
+                        }
+                    }
+                    defaultBook = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the best move from the {@link #getDefault() default opening book}.
+     *
+     * @param board the current position
+     * @param player the player that is to move
+     * @return column of the best move or -1 if there is no default book or it does not contain the position
+     */
+    public static int getDefaultMove(Board board, Player player) {
+        final Optional<OpeningBook> book = getDefault();
+        return book.isPresent() ? book.get().getBestMove(board, player) : -1;
+    }
+
+    /**
+     * Returns the best move for a position.
+     *
+     * @param board the current position
+     * @param player the player that is to move
+     * @return column of the best move or -1 if the book does not contain the position
+     */
+    public int getBestMove(Board board, Player player) {
+        final long key = key(board, player);
+        final int index = find(key);
+        if (index == -1) {
+            return -1;
+        }
+        final int move = data.getInt(HEADER_SIZE + index * RECORD_SIZE + 8);
+        final int column = key == canonicalKey(key) ? move : width - 1 - move;
+        return column >= 0 && column < width && board.hasSpaceInColumn(column) ? column : -1;
+    }
+
+    /**
+     * Returns the score of the best move for a position.
+     *
+     * @param board the current position
+     * @param player the player that is to move
+     * @return score from the point of view of the player that is to move, empty if the book does not contain the position
+     */
+    public OptionalInt getScore(Board board, Player player) {
+        final int index = find(key(board, player));
+        return index == -1 ? OptionalInt.empty() : OptionalInt.of(data.getInt(HEADER_SIZE + index * RECORD_SIZE + 12));
+    }
+
+    /**
+     * Returns the number of positions in this book.
+     *
+     * @return
+     */
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the number of half-moves the positions in this book are deep.
+     *
+     * @return
+     */
+    public int plies() {
+        return plies;
+    }
+
+    /**
+     * Returns the key of a position, or 0 if no position of the given board can be in this book
+     */
+    private long key(Board board, Player player) {
+        if (board.width != width || board.height != height || board.winLength != winLength
+                || board.tileCount() > plies || !board.hasPositionKey()) {
+            return 0;
+        }
+        return board.positionKey(player);
+    }
+
+    /**
+     * binary search for the record of a position, returns its index or -1
+     */
+    private int find(long key) {
+        if (key == 0) {
+            return -1;
+        }
+        final long canonicalKey = canonicalKey(key);
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long midKey = data.getLong(HEADER_SIZE + mid * RECORD_SIZE);
+            if (midKey < canonicalKey) {
+                low = mid + 1;
+            } else if (midKey > canonicalKey) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private long canonicalKey(long key) {
+        return Math.min(key, mirror(key, width, height));
+    }
+
+    /**
+     * Returns the key of a position to store in the book.
+     *
+     * @param board the position
+     * @param player the player that is to move
+     * @return the smaller of the position's key and the key of its mirror image
+     */
+    static long canonicalKey(Board board, Player player) {
+        final long key = board.positionKey(player);
+        return Math.min(key, mirror(key, board.width, board.height));
+    }
+
+    /**
+     * Mirrors a {@link Board#positionKey(Player) position key} at the board's vertical center line.
+     *
+     * @param key position key
+     * @param width board width
+     * @param height board height
+     * @return key of the mirrored position
+     */
+    static long mirror(long key, int width, int height) {
+        final int bitsPerColumn = height + 1;
+        final long columnMask = (1L << bitsPerColumn) - 1;
+        long result = 0;
+        for (int x = 0; x < width; x++) {
+            final long column = (key >>> (x * bitsPerColumn)) & columnMask;
+            result |= column << ((width - 1 - x) * bitsPerColumn);
+        }
+        return result;
+    }
+}
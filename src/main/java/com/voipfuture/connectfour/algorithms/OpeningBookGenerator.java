@@ -0,0 +1,158 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+import org.apache.commons.lang3.Validate;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Writes an {@link OpeningBook}.
+ *
+ * Enumerates all positions that can occur within the first few half-moves of a game, searches each of them
+ * with an {@link AlphaBetaSearch} and writes the best move and its score to a file. Positions are searched in
+ * parallel, using all available processors.
+ *
+ * Run it using <code>OpeningBookGenerator &lt;file&gt; [plies] [maxThinkDepth] [width] [height] [winLength]</code>.
+ */
+public final class OpeningBookGenerator {
+
+    private final int width;
+    private final int height;
+    private final int winLength;
+    private final int plies;
+    private final int maxThinkDepth;
+
+    private final Player first = new Player("first", true, Color.RED);
+    private final Player second = new Player("second", true, Color.BLUE);
+
+    /**
+     * Create instance.
+     *
+     * @param width board width
+     * @param height board height
+     * @param winLength number of tiles in a row needed to win
+     * @param plies number of half-moves to enumerate positions for
+     * @param maxThinkDepth search horizon for each position, as in {@link Player#maxThinkDepth()}
+     */
+    public OpeningBookGenerator(int width, int height, int winLength, int plies, int maxThinkDepth) {
+        final Board board = new Board(width, height, winLength);
+        Validate.isTrue(board.hasPositionKey(), "Board is too large for an opening book");
+        Validate.isTrue(plies >= 0 && plies < width * height, "plies must be between 0 and the number of tiles on the board");
+        Validate.isTrue(maxThinkDepth > 0, "maxThinkDepth must be at least 1 half-move.");
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        this.plies = plies;
+        this.maxThinkDepth = maxThinkDepth;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: OpeningBookGenerator <file> [plies] [maxThinkDepth] [width] [height] [winLength]");
+            System.exit(1);
+        }
+        final int plies = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        final int maxThinkDepth = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        final int width = args.length > 3 ? Integer.parseInt(args[3]) : 7;
+        final int height = args.length > 4 ? Integer.parseInt(args[4]) : 6;
+        final int winLength = args.length > 5 ? Integer.parseInt(args[5]) : 4;
+
+        final long start = System.currentTimeMillis();
+        final int count = new OpeningBookGenerator(width, height, winLength, plies, maxThinkDepth).write(Paths.get(args[0]));
+        System.out.println("Wrote " + count + " positions to " + args[0] + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Searches all positions and writes the opening book.
+     *
+     * @param file file to write, will be overwritten if it exists
+     * @return number of positions written
+     * @throws IOException if writing the file fails
+     */
+    public int write(Path file) throws IOException {
+        Validate.notNull(file, "file must not be null");
+
+        // one position per canonical key, mirrored positions are only searched once
+        final Map<Long, Board> positions = new HashMap<>();
+        collectPositions(new Board(width, height, winLength), 0, positions);
+        System.out.println("Searching " + positions.size() + " positions ...");
+
+        final long[] keys = new long[positions.size()];
+        final int[] moves = new int[keys.length];
+        final int[] scores = new int[keys.length];
+        final List<Map.Entry<Long, Board>> entries = new ArrayList<>(positions.entrySet());
+        entries.sort(Map.Entry.comparingByKey(Comparator.naturalOrder()));
+
+        // the searches only share the transposition table, which is thread-safe
+        final TranspositionTable table = new TranspositionTable(64);
+        final AtomicInteger done = new AtomicInteger();
+        IntStream.range(0, keys.length).parallel().forEach(i -> {
+            final Map.Entry<Long, Board> entry = entries.get(i);
+            final Board board = entry.getValue();
+            final Player player = board.tileCount() % 2 == 0 ? first : second;
+            final AlphaBetaSearch search = new AlphaBetaSearch(board, player, player == first ? second : first);
+            search.setTranspositionTable(table);
+            int move = search.getNextMove(maxThinkDepth);
+            // store the move for the position with the canonical key
+            if (board.positionKey(player) != entry.getKey()) {
+                move = width - 1 - move;
+            }
+            keys[i] = entry.getKey();
+            moves[i] = move;
+            scores[i] = search.bestScore();
+            if (done.incrementAndGet() % 1000 == 0) {
+                System.out.println(done.get() + " of " + keys.length + " positions searched");
+            }
+        });
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(winLength);
+            out.writeInt(plies);
+            out.writeLong(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                out.writeLong(keys[i]);
+                out.writeInt(moves[i]);
+                out.writeInt(scores[i]);
+            }
+        }
+        return keys.length;
+    }
+
+    /**
+     * recursively collect all positions that are not over yet and have at most 'plies' tiles
+     */
+    private void collectPositions(Board board, int ply, Map<Long, Board> positions) {
+        final Player player = ply % 2 == 0 ? first : second;
+        if (positions.putIfAbsent(OpeningBook.canonicalKey(board, player), board.createCopy()) != null || ply == plies) {
+            return;
+        }
+        final int[] columns = new int[width];
+        final int count = board.playableColumns(columns);
+        for (int i = 0; i < count; i++) {
+            final int x = columns[i];
+            final int y = board.makeMove(x, player);
+            if (!board.isWinningTile(x, y) && !board.isFull()) {
+                collectPositions(board, ply + 1, positions);
+            }
+            board.undoMove();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+
+/**
+ * Plays random games to the end, as fast as possible.
+ *
+ * A position is just two <code>long</code>s using the {@link Board#positionKey(Player) position key} layout, one
+ * holding the tiles of the player that is to move and one holding all tiles. The playable cells of all columns are found
+ * with a single addition, a random move is picked from them without looking at the columns one by one, and a win is
+ * detected by shifting the tiles of the player that moved in each direction. Random numbers come from an inlined
+ * SplitMix64 generator. A playout does not allocate any objects.
+ *
+ * Only boards that fit into 64 bits are supported, see {@link #supports(int, int)}. Instances are not thread-safe,
+ * use one per thread.
+ */
+public final class PlayoutEngine {
+
+    /**
+     * Result of a playout: the player that was to move lost.
+     */
+    public static final int LOSS = 0;
+    /**
+     * Result of a playout: the game ended in a draw.
+     */
+    public static final int DRAW = 1;
+    /**
+     * Result of a playout: the player that was to move won.
+     */
+    public static final int WIN = 2;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    public final int width;
+    public final int height;
+    public final int winLength;
+
+    // bottom cell of each column
+    private final long bottomMask;
+    // all cells of the board, without the extra bit on top of each column
+    private final long boardMask;
+    // shift distances of the directions in which a line of 'winLength' tiles fits into 64 bits
+    private final int[] shifts;
+
+    private long seed;
+
+    /**
+     * Create instance.
+     *
+     * @param width board width
+     * @param height board height
+     * @param winLength number of tiles in a row needed to win
+     * @param seed seed for the random number generator
+     * @throws IllegalArgumentException if the board is not {@link #supports(int, int) supported}
+     */
+    public PlayoutEngine(int width, int height, int winLength, long seed) {
+        Validate.isTrue(width > 0 && height > 0 && winLength > 1, "Invalid board size");
+        Validate.isTrue(supports(width, height), "Board is too large");
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        this.seed = seed;
+
+        long bottom = 0;
+        for (int x = 0; x < width; x++) {
+            bottom |= 1L << (x * (height + 1));
+        }
+        this.bottomMask = bottom;
+        this.boardMask = bottom * ((1L << height) - 1);
+
+        // vertical, horizontal and both diagonals
+        final int[] directions = {1, height + 1, height, height + 2};
+        int count = 0;
+        final int[] valid = new int[directions.length];
+        for (int shift : directions) {
+            if ((long) (winLength - 1) * shift < 64) {
+                valid[count++] = shift;
+            }
+        }
+        this.shifts = Arrays.copyOf(valid, count);
+    }
+
+    /**
+     * Create an instance for the size of a given board.
+     *
+     * @param board the board
+     * @param seed seed for the random number generator
+     * @throws IllegalArgumentException if the board is not {@link #supports(Board) supported}
+     */
+    public PlayoutEngine(Board board, long seed) {
+        this(board.width, board.height, board.winLength, seed);
+    }
+
+    /**
+     * Returns whether boards of a given size are supported.
+     *
+     * @param width board width
+     * @param height board height
+     * @return
+     */
+    public static boolean supports(int width, int height) {
+        return (long) width * (height + 1) <= 64;
+    }
+
+    /**
+     * Returns whether boards of the size of a given board are supported.
+     *
+     * @param board the board
+     * @return
+     * @see Board#hasPositionKey()
+     */
+    public static boolean supports(Board board) {
+        return supports(board.width, board.height);
+    }
+
+    /**
+     * Plays random moves for both players until the game is over.
+     *
+     * @param positionKey the position to start from, as returned by {@link Board#positionKey(Player)} for the player
+     *                    that is to move. The game must not be over yet.
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS}, from the point of view of the player that is to move
+     */
+    public int playout(long positionKey) {
+        long mask = decodeMask(positionKey);
+        long current = positionKey & mask;
+        int empty = Long.bitCount(boardMask & ~mask);
+
+        boolean firstPlayer = true;
+        while (empty > 0) {
+            // the lowest free cell of each column, cells above full columns fall off the board
+            long free = (mask + bottomMask) & boardMask;
+            for (int skip = nextInt(Long.bitCount(free)); skip > 0; skip--) {
+                free &= free - 1;
+            }
+            final long cell = free & -free;
+            current |= cell;
+            mask |= cell;
+            if (isWin(current)) {
+                return firstPlayer ? WIN : LOSS;
+            }
+            current ^= mask;
+            firstPlayer = !firstPlayer;
+            empty--;
+        }
+        return DRAW;
+    }
+
+    /**
+     * returns the occupied cells of a position key: each column has an extra bit on top of its tiles, all bits
+     * below it are occupied
+     */
+    private long decodeMask(long positionKey) {
+        long mask = 0;
+        final long columnMask = -1L >>> (63 - height);
+        for (int x = 0; x < width; x++) {
+            final int offset = x * (height + 1);
+            final long column = (positionKey >>> offset) & columnMask;
+            mask |= (Long.highestOneBit(column) - 1) << offset;
+        }
+        return mask;
+    }
+
+    private boolean isWin(long tiles) {
+        for (int shift : shifts) {
+            long run = tiles;
+            for (int i = 1; i < winLength && run != 0; i++) {
+                run &= tiles >>> (i * shift);
+            }
+            if (run != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * random number in the range [0, bound), SplitMix64 scaled by multiplication
+     */
+    private int nextInt(int bound) {
+        long z = (seed += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return (int) (((z >>> 32) * bound) >>> 32);
+    }
+}
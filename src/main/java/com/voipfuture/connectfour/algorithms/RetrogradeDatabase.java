@@ -0,0 +1,168 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Read-only database with the game-theoretic value of every position on a small board.
+ *
+ * The database is a file written by {@link RetrogradeSolver} that is memory-mapped when opened. It stores
+ * 2 bits per position: {@link #UNKNOWN}, {@link #LOSS}, {@link #DRAW} or {@link #WIN} from the point of view of the
+ * player that is to move. Positions are numbered by a {@link PositionIndex}, a compact, collision-free index of all
+ * positions that can occur in a game, computed from the {@link Board#positionKey(Player) position key}. The file starts
+ * with a header followed by the values:
+ *
+ * <pre>
+ * header:  int magic, int version, int width, int height, int winLength, 12 bytes padding
+ * values:  4 positions per byte, starting at the least significant bits
+ * </pre>
+ *
+ * The database used by {@link DatabasePlayer} is configured through the system property {@value #DATABASE_PROPERTY},
+ * see {@link #getDefault()}.
+ */
+public final class RetrogradeDatabase {
+
+    /**
+     * System property holding the path to the default database.
+     */
+    public static final String DATABASE_PROPERTY = "connectfour.database";
+
+    /**
+     * Value of positions that cannot occur in a game, either because a player already won or because the tiles
+     * of the two players do not add up.
+     */
+    public static final int UNKNOWN = 0;
+    /**
+     * Value of positions the player that is to move will lose against perfect play.
+     */
+    public static final int LOSS = 1;
+    /**
+     * Value of positions that end in a draw with perfect play.
+     */
+    public static final int DRAW = 2;
+    /**
+     * Value of positions the player that is to move will win with perfect play.
+     */
+    public static final int WIN = 3;
+
+    static final int MAGIC = 0x43344442; // 'C4DB'
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * Largest number of positions a database may hold, limited by the maximum size of a memory-mapped file (2 GB).
+     */
+    static final long MAX_POSITIONS = 4L * (Integer.MAX_VALUE - HEADER_SIZE - 3);
+
+    private static volatile Optional<RetrogradeDatabase> defaultDatabase;
+
+    private final ByteBuffer data;
+    private final int width;
+    private final int height;
+    private final int winLength;
+    private final PositionIndex index;
+
+    private RetrogradeDatabase(ByteBuffer data) {
+        this.data = data;
+        Validate.isTrue(data.capacity() >= HEADER_SIZE && data.getInt(0) == MAGIC, "Not a database");
+        Validate.isTrue(data.getInt(4) == VERSION, "Unsupported database version %d", data.getInt(4));
+        this.width = data.getInt(8);
+        this.height = data.getInt(12);
+        this.winLength = data.getInt(16);
+        Validate.isTrue(width >= 4 && height >= 4 && width * (height + 1) <= 64, "Unsupported board size %dx%d", width, height);
+        this.index = new PositionIndex(width, height);
+        Validate.isTrue(index.count() <= MAX_POSITIONS && data.capacity() == fileSize(index.count()), "Database is truncated or corrupt");
+    }
+
+    /**
+     * Opens a database file.
+     *
+     * @param file file to open
+     * @return the database
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid database
+     */
+    public static RetrogradeDatabase open(Path file) throws IOException {
+        Validate.notNull(file, "file must not be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Validate.isTrue(channel.size() <= Integer.MAX_VALUE, "Database is too large");
+            return new RetrogradeDatabase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns the database configured through the system property {@value #DATABASE_PROPERTY}.
+     *
+     * The database is opened on the first call, if it cannot be opened an error is printed and no database is used.
+     *
+     * @return the database, empty if no database is configured or it could not be opened
+     */
+    public static Optional<RetrogradeDatabase> getDefault() {
+        Optional<RetrogradeDatabase> result = defaultDatabase;
+        if (result == null) {
+            synchronized (RetrogradeDatabase.class) {
+                result = defaultDatabase;
+                if (result == null) {
+                    result = Optional.empty();
+                    final String path = System.getProperty(DATABASE_PROPERTY);
+                    if (path != null && !path.isBlank()) {
+                        try {
+                            result = Optional.of(open(Paths.get(path)));
+                            System.out.println("Using database " + path);
+                        } catch (IOException | IllegalArgumentException e) {
+                            System.err.println("Failed to open database " + path + ": " + e.getMessage());
+                        }
+                    }
+                    defaultDatabase = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether this database holds the positions of a board.
+     *
+     * @param board the board
+     * @return
+     */
+    public boolean supports(Board board) {
+        return board.width == width && board.height == height && board.winLength == winLength;
+    }
+
+    /**
+     * Returns the value of a position.
+     *
+     * @param board the position, all tiles must have been placed using {@link Board#move(int, Player)}
+     * @param player the player that is to move
+     * @return {@link #WIN}, {@link #DRAW}, {@link #LOSS} or {@link #UNKNOWN} if the position cannot occur in a game
+     * @throws IllegalArgumentException if the database does not {@link #supports(Board) support} the board
+     */
+    public int value(Board board, Player player) {
+        Validate.isTrue(supports(board), "Database does not support this board");
+        final long i = index.index(board.positionKey(player));
+        if (i == -1) {
+            return UNKNOWN;
+        }
+        return (data.get(HEADER_SIZE + (int) (i >>> 2)) >>> (((int) i & 3) * 2)) & 3;
+    }
+
+    /**
+     * Returns the size of a database file holding the given number of positions.
+     *
+     * @param positionCount number of positions
+     * @return file size in bytes, a multiple of 4
+     */
+    static long fileSize(long positionCount) {
+        return HEADER_SIZE + ((positionCount + 15) >>> 4) * 4;
+    }
+}
@@ -0,0 +1,244 @@
+package com.voipfuture.connectfour.algorithms;
+
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Solves a small board completely and writes a {@link RetrogradeDatabase}.
+ *
+ * The solver works backwards from the full board: all positions with the same number of tiles form a layer, and the
+ * value of every position in a layer follows from the values of the positions one tile later, which have already been
+ * computed. Within a layer, positions are grouped by the height of their columns and each group is solved by its own
+ * task on a {@link ForkJoinPool}.
+ *
+ * The values are written straight into the memory-mapped database file, so the heap stays small no matter how large
+ * the database is. Tasks store values using atomic bitwise-or on the mapped file, so two tasks can write
+ * to the same byte.
+ *
+ * Run it using <code>RetrogradeSolver &lt;file&gt; [width] [height] [winLength] [threads]</code>.
+ */
+public final class RetrogradeSolver {
+
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final int width;
+    private final int height;
+    private final int winLength;
+    private final int bitsPerColumn;
+    private final long bottomMask;
+    private final long columnMask;
+    private final PositionIndex index;
+
+    private MappedByteBuffer data;
+
+    /**
+     * Create instance.
+     *
+     * @param width board width
+     * @param height board height
+     * @param winLength number of tiles in a row needed to win
+     */
+    public RetrogradeSolver(int width, int height, int winLength) {
+        Validate.isTrue(width >= 4 && height >= 4, "Board must be at least 4x4 tiles big");
+        Validate.isTrue(winLength >= 2 && winLength <= Math.max(width, height), "Win length must be at least 2 and must fit on the board");
+        Validate.isTrue(width * height <= 30, "Board is too large to be solved");
+        this.index = new PositionIndex(width, height);
+        Validate.isTrue(index.count() <= RetrogradeDatabase.MAX_POSITIONS, "Board is too large to be solved, the database would need more than 2 GB");
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        this.bitsPerColumn = height + 1;
+        this.columnMask = (1L << bitsPerColumn) - 1;
+        long bottom = 0;
+        for (int x = 0; x < width; x++) {
+            bottom |= 1L << (x * bitsPerColumn);
+        }
+        this.bottomMask = bottom;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: RetrogradeSolver <file> [width] [height] [winLength] [threads]");
+            System.exit(1);
+        }
+        final int width = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        final int height = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final int winLength = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        final int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        final long start = System.currentTimeMillis();
+        final int value = new RetrogradeSolver(width, height, winLength).solve(Paths.get(args[0]), threads);
+        System.out.println("Solved " + width + "x" + height + " in " + (System.currentTimeMillis() - start) + " ms, " +
+                "the first player will " + (value == RetrogradeDatabase.WIN ? "win" : value == RetrogradeDatabase.LOSS ? "lose" : "draw"));
+    }
+
+    /**
+     * Solves all positions and writes the database.
+     *
+     * @param file file to write, will be overwritten if it exists
+     * @param threads number of threads to use
+     * @return value of the empty board
+     * @throws IOException if writing the file fails
+     */
+    public int solve(Path file, int threads) throws IOException {
+        Validate.notNull(file, "file must not be null");
+        Validate.isTrue(threads > 0, "threads must be at least 1");
+
+        final long size = RetrogradeDatabase.fileSize(index.count());
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            // start with a file full of zeros, values are or-ed into it
+            out.setLength(0);
+            out.setLength(size);
+            data = out.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            data.putInt(0, RetrogradeDatabase.MAGIC);
+            data.putInt(4, RetrogradeDatabase.VERSION);
+            data.putInt(8, width);
+            data.putInt(12, height);
+            data.putInt(16, winLength);
+
+            for (int tiles = width * height; tiles >= 0; tiles--) {
+                final List<int[]> columnHeights = new ArrayList<>();
+                collectColumnHeights(new int[width], 0, tiles, columnHeights);
+                final int layer = tiles;
+                pool.submit(() -> columnHeights.parallelStream().forEach(heights -> solve(heights, layer))).join();
+            }
+            data.force();
+            return value(bottomMask);
+        } finally {
+            pool.shutdown();
+            data = null;
+        }
+    }
+
+    /**
+     * collects all combinations of column heights that add up to the given number of tiles
+     */
+    private void collectColumnHeights(int[] heights, int column, int tiles, List<int[]> result) {
+        if (column == width - 1) {
+            if (tiles <= height) {
+                heights[column] = tiles;
+                result.add(heights.clone());
+            }
+            return;
+        }
+        for (int h = 0; h <= Math.min(height, tiles); h++) {
+            heights[column] = h;
+            collectColumnHeights(heights, column + 1, tiles - h, result);
+        }
+    }
+
+    /**
+     * solves all positions with the given column heights, all positions with one more tile must have been solved
+     */
+    private void solve(int[] heights, int tiles) {
+        // bit of every tile on the board and the empty cell on top of each column
+        final long[] tileBits = new long[tiles];
+        long mask = 0;
+        int count = 0;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < heights[x]; y++) {
+                tileBits[count++] = 1L << (x * bitsPerColumn + y);
+            }
+            mask |= ((1L << heights[x]) - 1) << (x * bitsPerColumn);
+        }
+        final long top = mask + bottomMask;
+
+        // the player to move has placed one tile less than the opponent if the number of tiles is odd
+        final int ownTiles = tiles / 2;
+        final int last = tiles == 0 ? 0 : (1 << tiles);
+        int combination = (1 << ownTiles) - 1;
+        do {
+            long own = 0;
+            for (int i = 0, bits = combination; bits != 0; i++, bits >>>= 1) {
+                if ((bits & 1) != 0) {
+                    own |= tileBits[i];
+                }
+            }
+            final int value = solve(own, mask, top, tiles);
+            if (value != RetrogradeDatabase.UNKNOWN) {
+                store(own + mask + bottomMask, value);
+            }
+            combination = nextCombination(combination);
+        } while (combination < last);
+    }
+
+    /**
+     * value of a position for the player that is to move, top holds the lowest empty cell of each column
+     */
+    private int solve(long own, long mask, long top, int tiles) {
+        final long opponent = mask ^ own;
+        if (hasLine(own) || hasLine(opponent)) {
+            return RetrogradeDatabase.UNKNOWN;
+        }
+        if (tiles == width * height) {
+            return RetrogradeDatabase.DRAW;
+        }
+        int best = RetrogradeDatabase.LOSS;
+        for (int x = 0; x < width; x++) {
+            final long move = top & (columnMask >>> 1) << (x * bitsPerColumn);
+            if (move == 0) {
+                continue;
+            }
+            if (hasLine(own | move)) {
+                return RetrogradeDatabase.WIN;
+            }
+            final int reply = value(opponent + (mask | move) + bottomMask);
+            best = Math.max(best, RetrogradeDatabase.WIN + RetrogradeDatabase.LOSS - reply);
+        }
+        return best;
+    }
+
+    private int value(long key) {
+        final long i = index.index(key);
+        final int shift = ((int) i & 3) * 2;
+        return (data.get(RetrogradeDatabase.HEADER_SIZE + (int) (i >>> 2)) >>> shift) & 3;
+    }
+
+    private void store(long key, int value) {
+        final long i = index.index(key);
+        final int offset = RetrogradeDatabase.HEADER_SIZE + (int) (i >>> 4) * 4;
+        INTS.getAndBitwiseOr(data, offset, value << (((int) i & 15) * 2));
+    }
+
+    /**
+     * checks for winLength tiles in a row using the same shifts as the board's bitboards
+     */
+    private boolean hasLine(long bits) {
+        return hasLine(bits, 1) || hasLine(bits, bitsPerColumn) || hasLine(bits, bitsPerColumn - 1) || hasLine(bits, bitsPerColumn + 1);
+    }
+
+    private boolean hasLine(long bits, int shift) {
+        int length = 1;
+        while (length < winLength && bits != 0) {
+            final int step = Math.min(length, winLength - length);
+            bits &= bits >>> (shift * step);
+            length += step;
+        }
+        return bits != 0;
+    }
+
+    /**
+     * next larger number with the same number of bits set (Gosper's hack)
+     */
+    private static int nextCombination(int bits) {
+        if (bits == 0) {
+            return Integer.MAX_VALUE;
+        }
+        final int lowest = bits & -bits;
+        final int ripple = bits + lowest;
+        return (((ripple ^ bits) >>> 2) / lowest) | ripple;
+    }
+}
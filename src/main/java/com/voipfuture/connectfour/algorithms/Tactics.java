@@ -0,0 +1,191 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Finds immediate wins and forced moves without searching.
+ *
+ * Works on bitboards in the {@link Board#positionKey(Player) position key} layout: one <code>long</code> holding the tiles
+ * of a player and one holding all tiles. The cells that would complete a line for a player ("threats") are found for all
+ * cells at once by shifting the player's tiles in each direction. From the threats of both players, {@link #safeCells(long, long)}
+ * derives the moves that do not lose on the spot:
+ * <ul>
+ *     <li>if the opponent has a playable threat, the only move left is to block it, and if there are two of them the game is lost</li>
+ *     <li>a move directly below a threat of the opponent lets the opponent complete the line on the next move</li>
+ * </ul>
+ *
+ * Only boards that fit into 64 bits are supported, see {@link #supports(Board)}. Instances are immutable.
+ */
+public final class Tactics {
+
+    /**
+     * Flag set in the result of {@link #columnsToSearch(Board, Player, Player)} if the player can win with the next move.
+     */
+    public static final long WINNING = Long.MIN_VALUE;
+
+    public final int width;
+    public final int height;
+    public final int winLength;
+
+    // bottom cell of each column
+    private final long bottomMask;
+    // all cells of the board, without the extra bit on top of each column
+    private final long boardMask;
+    private final long columnMask;
+    // shift distances of vertical, horizontal and both diagonal lines
+    private final int[] shifts;
+
+    /**
+     * Create instance.
+     *
+     * @param width board width
+     * @param height board height
+     * @param winLength number of tiles in a row needed to win
+     * @throws IllegalArgumentException if the board is too large
+     */
+    public Tactics(int width, int height, int winLength) {
+        Validate.isTrue(width > 0 && height > 0 && winLength > 1, "Invalid board size");
+        Validate.isTrue((long) width * (height + 1) <= 64, "Board is too large");
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        long bottom = 0;
+        for (int x = 0; x < width; x++) {
+            bottom |= 1L << (x * (height + 1));
+        }
+        this.bottomMask = bottom;
+        this.boardMask = bottom * ((1L << height) - 1);
+        this.columnMask = -1L >>> (63 - height);
+        this.shifts = new int[]{1, height + 1, height, height + 2};
+    }
+
+    /**
+     * Create an instance for the size of a given board.
+     *
+     * @param board the board
+     * @throws IllegalArgumentException if the board is not {@link #supports(Board) supported}
+     */
+    public Tactics(Board board) {
+        this(board.width, board.height, board.winLength);
+    }
+
+    /**
+     * Returns whether boards of the size of a given board are supported.
+     *
+     * @param board the board
+     * @return
+     * @see Board#hasPositionKey()
+     */
+    public static boolean supports(Board board) {
+        return board.hasPositionKey();
+    }
+
+    /**
+     * Returns the columns worth playing in a position.
+     *
+     * @param board the position, must have the size this instance was created for
+     * @param player the player that is to move
+     * @param opponent the opponent
+     * @return the columns that win on the spot, with {@link #WINNING} set, if there are any. Otherwise the columns that
+     *         do not {@link #safeCells(long, long) lose on the spot}, 0 if every move loses. Bit 0 stands for the leftmost column.
+     */
+    public long columnsToSearch(Board board, Player player, Player opponent) {
+        // the keys only differ in the tiles of the two players
+        final long key = board.positionKey(player);
+        final long mask = key ^ board.positionKey(opponent);
+        final long playable = playableCells(mask);
+        final long wins = winningCells(key & mask, mask) & playable;
+        if (wins != 0) {
+            return WINNING | columns(wins);
+        }
+        return columns(safeCells(playable, winningCells(mask & ~key, mask)));
+    }
+
+    /**
+     * Returns the cells a move can be made to.
+     *
+     * @param mask all tiles on the board
+     * @return the lowest empty cell of each column that is not full
+     */
+    public long playableCells(long mask) {
+        return (mask + bottomMask) & boardMask;
+    }
+
+    /**
+     * Returns the empty cells that would complete a line for a player.
+     *
+     * The cells are not necessarily playable yet, see {@link #playableCells(long)}.
+     *
+     * @param tiles the player's tiles
+     * @param mask all tiles on the board
+     * @return
+     */
+    public long winningCells(long tiles, long mask) {
+        long result = 0;
+        for (int shift : shifts) {
+            // a cell completes a line if the player owns 'before' cells on one side and the rest on the other side of it
+            long preceded = -1L;
+            for (int before = 0; before < winLength && preceded != 0; before++) {
+                if (before > 0) {
+                    preceded &= shift(tiles, before * shift);
+                }
+                long line = preceded;
+                for (int after = 1; after < winLength - before && line != 0; after++) {
+                    line &= shift(tiles, -after * shift);
+                }
+                result |= line;
+            }
+        }
+        return result & boardMask & ~mask;
+    }
+
+    /**
+     * Returns the playable cells that do not let the opponent win on the next move.
+     *
+     * @param playable the {@link #playableCells(long) playable cells}
+     * @param opponentThreats the {@link #winningCells(long, long) winning cells} of the opponent
+     * @return the cells, 0 if every move loses
+     */
+    public long safeCells(long playable, long opponentThreats) {
+        long candidates = playable;
+        final long forced = playable & opponentThreats;
+        if (forced != 0) {
+            if ((forced & (forced - 1)) != 0) {
+                // two threats can't be blocked at once
+                return 0;
+            }
+            candidates = forced;
+        }
+        // the cell above a move becomes playable for the opponent
+        return candidates & ~(opponentThreats >>> 1);
+    }
+
+    /**
+     * Returns the columns that contain at least one of the given cells.
+     *
+     * @param cells the cells
+     * @return bit mask of columns, bit 0 for the leftmost column
+     */
+    public long columns(long cells) {
+        long result = 0;
+        for (int x = 0; cells != 0 && x < width; x++) {
+            if ((cells & (columnMask << (x * (height + 1)))) != 0) {
+                result |= 1L << x;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * shifts bits towards higher cells for positive distances and towards lower cells for negative ones, bits that
+     * leave the 64 bits are lost
+     */
+    private static long shift(long bits, int distance) {
+        if (distance >= 64 || distance <= -64) {
+            return 0;
+        }
+        return distance >= 0 ? bits << distance : bits >>> -distance;
+    }
+}
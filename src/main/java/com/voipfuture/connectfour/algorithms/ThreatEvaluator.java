@@ -0,0 +1,175 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Scores positions by the lines both players can still complete, working on bitboards instead of single cells.
+ *
+ * A window is a run of {@link #winLength} cells in a row, column or diagonal that holds no tile of the opponent. Windows
+ * that are one tile short of a line are worth {@link #ONE_SHORT_SCORE}, windows two tiles short are worth
+ * {@link #TWO_SHORT_SCORE}, and every empty cell that would complete a line ("threat") is worth {@link #THREAT_SCORE}.
+ * The score of a position is the player's score minus the opponent's score.
+ *
+ * Works on bitboards in the {@link Board#positionKey(Player) position key} layout like {@link Tactics}: for each
+ * direction, the windows are identified by their first cell, and shifting the empty cells by one step after the other
+ * counts the empty cells of all windows at once (saturating at three). The windows are then counted with
+ * {@link Long#bitCount(long)}, so scoring a position takes a fixed number of shifts and ANDs, without looking at
+ * single cells or branching on their contents.
+ *
+ * Only boards that fit into 64 bits are supported, see {@link #supports(Board)}. Instances are immutable.
+ */
+public final class ThreatEvaluator implements Evaluator {
+
+    /** Score of a window that holds all but one tile of a line. */
+    public static final int ONE_SHORT_SCORE = 40;
+    /** Score of a window that holds all but two tiles of a line. */
+    public static final int TWO_SHORT_SCORE = 10;
+    /** Score of an empty cell that would complete a line. */
+    public static final int THREAT_SCORE = 100;
+
+    public final int width;
+    public final int height;
+    public final int winLength;
+
+    private final long bottomMask;
+    private final long boardMask;
+    // distance between neighbouring cells in a column, row and both diagonals
+    private final int[] shifts;
+
+    /**
+     * Create an instance for a board size.
+     *
+     * @param width board width
+     * @param height board height
+     * @param winLength number of tiles in a row needed to win
+     * @throws IllegalArgumentException if the board does not fit into 64 bits
+     */
+    public ThreatEvaluator(int width, int height, int winLength) {
+        Validate.isTrue(width > 0 && height > 0 && winLength > 1, "Invalid board size");
+        Validate.isTrue((long) width * (height + 1) <= 64, "Board is too large");
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        long bottom = 0;
+        for (int x = 0; x < width; x++) {
+            bottom |= 1L << (x * (height + 1));
+        }
+        this.bottomMask = bottom;
+        this.boardMask = bottom * ((1L << height) - 1);
+        this.shifts = new int[]{1, height + 1, height, height + 2};
+    }
+
+    /**
+     * Create an instance for the size of a given board.
+     *
+     * @param board the board
+     * @throws IllegalArgumentException if the board is not {@link #supports(Board) supported}
+     */
+    public ThreatEvaluator(Board board) {
+        this(board.width, board.height, board.winLength);
+    }
+
+    /**
+     * Returns whether boards of the size of a given board are supported.
+     *
+     * @param board the board
+     * @return
+     * @see Board#hasPositionKey()
+     */
+    public static boolean supports(Board board) {
+        return board.hasPositionKey();
+    }
+
+    @Override
+    public int getScore(Board board, Player player) {
+        final int code = board.codeOf(player);
+        if (code == Board.EMPTY) {
+            // the player has no tiles to score
+            return board.isFull() ? Heuristic.DRAW_SCORE : 0;
+        }
+        final long key = board.positionKey(player);
+        final Player opponent = board.player(3 - code);
+        // without tiles of the opponent, the key is the player's tiles added twice to the bottom row
+        final long own = opponent == null ? (key - bottomMask) >>> 1 : key & (key ^ board.positionKey(opponent));
+        final long mask = opponent == null ? own : key ^ board.positionKey(opponent);
+        if (hasLine(own)) {
+            return Heuristic.WIN_SCORE;
+        }
+        if (board.isFull()) {
+            return Heuristic.DRAW_SCORE;
+        }
+        return getScore(own, mask & ~own) - getScore(mask & ~own, own);
+    }
+
+    /**
+     * Returns whether a player has {@link #winLength} tiles in a row.
+     *
+     * @param tiles the player's tiles
+     * @return
+     */
+    public boolean hasLine(long tiles) {
+        long lines = 0;
+        for (int shift : shifts) {
+            long line = tiles;
+            for (int i = 1; i < winLength; i++) {
+                line &= down(tiles, i * shift);
+            }
+            lines |= line;
+        }
+        return lines != 0;
+    }
+
+    /**
+     * Scores the windows and threats of a player, not taking into account whether anybody has already won.
+     *
+     * @param own the player's tiles
+     * @param opponent the opponent's tiles
+     * @return
+     */
+    public int getScore(long own, long opponent) {
+        final long empty = boardMask & ~(own | opponent);
+        final long free = own | empty;
+        int oneShort = 0;
+        int twoShort = 0;
+        long threats = 0;
+        for (int shift : shifts) {
+            // windows without opponent tiles, and windows with at least one, two and three empty cells
+            long open = free;
+            long oneEmpty = empty;
+            long twoEmpty = 0;
+            long threeEmpty = 0;
+            for (int i = 1; i < winLength; i++) {
+                final long next = down(empty, i * shift);
+                open &= down(free, i * shift);
+                threeEmpty |= twoEmpty & next;
+                twoEmpty |= oneEmpty & next;
+                oneEmpty |= next;
+            }
+            final long oneShortWindows = open & oneEmpty & ~twoEmpty;
+            oneShort += Long.bitCount(oneShortWindows);
+            twoShort += Long.bitCount(open & twoEmpty & ~threeEmpty);
+            // the empty cell of each window that is one tile short
+            for (int i = 0; i < winLength; i++) {
+                threats |= up(oneShortWindows, i * shift);
+            }
+        }
+        threats &= empty;
+        return oneShort * ONE_SHORT_SCORE + twoShort * TWO_SHORT_SCORE + Long.bitCount(threats) * THREAT_SCORE;
+    }
+
+    /*
+     * moves the bits of all cells towards lower cells, bits leaving the 64 bits are lost
+     */
+    private static long down(long bits, int distance) {
+        return distance < 64 ? bits >>> distance : 0;
+    }
+
+    /*
+     * moves the bits of all cells towards higher cells, bits leaving the 64 bits are lost
+     */
+    private static long up(long bits, int distance) {
+        return distance < 64 ? bits << distance : 0;
+    }
+}
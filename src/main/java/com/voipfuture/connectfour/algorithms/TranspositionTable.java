@@ -0,0 +1,260 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size transposition table that stores search results keyed by position.
+ *
+ * The table is a power-of-two sized array of entries, each entry consisting of two <code>long</code>s:
+ * The entry's data (score, search depth, bound type, best move and age) and the position key XOR'ed with the data.
+ * Entries are read and written without any locking, a torn write (two threads storing to the same slot at the same time)
+ * will simply fail the key check on the next probe and is treated like a miss. This makes the table safe
+ * to share between any number of searching threads.
+ *
+ * When two positions map to the same slot, the new entry replaces the old one if the old entry was stored during an
+ * earlier {@link #newSearch() search} or if the new entry has been searched at least as deep as the old one.
+ *
+ * @see #key(Board, Player)
+ */
+public final class TranspositionTable {
+
+    /** Bound type: the stored score is exact. */
+    public static final int EXACT = 0;
+    /** Bound type: the stored score is a lower bound (the search failed high). */
+    public static final int LOWER_BOUND = 1;
+    /** Bound type: the stored score is an upper bound (the search failed low). */
+    public static final int UPPER_BOUND = 2;
+
+    /** Returned by {@link #probe(long)} if there is no entry for a given key. */
+    public static final long NO_ENTRY = 0;
+
+    // key used to tell apart identical positions with different players to move
+    private static final long SECOND_PLAYER_TO_MOVE = 0xC13FA9A902A6328FL;
+
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int MOVE_SHIFT = 42;
+    private static final int AGE_SHIFT = 52;
+    private static final long USED = 1L << 63;
+
+    // largest number of slots whose two longs each still fit into one Java array, 8 GB
+    private static final long MAX_SLOTS = 1L << 29;
+
+    private final long[] entries;
+    private final int mask;
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder usedSlots = new LongAdder();
+
+    /**
+     * Create instance.
+     *
+     * @param sizeInMB memory budget in megabytes, the table will use the largest power-of-two number
+     *                 of entries that fits into this budget but never more than 8 GB
+     */
+    public TranspositionTable(int sizeInMB) {
+        Validate.isTrue(sizeInMB > 0, "sizeInMB must be at least 1");
+        final long bytes = sizeInMB * 1024L * 1024L;
+        final long slots = Long.highestOneBit(Math.min(bytes / 16, MAX_SLOTS));
+        this.entries = new long[(int) (2 * slots)];
+        this.mask = (int) slots - 1;
+    }
+
+    /**
+     * Returns the key to use for a position.
+     *
+     * The key combines the board's {@link Board#hash() hash} with the side to move and the board's
+     * {@link com.voipfuture.connectfour.BoardGeometry#key size}, so a table or cache that outlives a change
+     * of the board size does not mix up positions of different sizes.
+     *
+     * @param board the position
+     * @param sideToMove the player that is to move in this position
+     * @return the key
+     */
+    public static long key(Board board, Player sideToMove) {
+        final long key = board.hash() ^ board.geometry.key;
+        return board.codeOf(sideToMove) == 2 ? key ^ SECOND_PLAYER_TO_MOVE : key;
+    }
+
+    /**
+     * Looks up the entry for a given key.
+     *
+     * @param key position key
+     * @return the entry or {@link #NO_ENTRY}, use {@link #score(long)}, {@link #depth(long)}, {@link #bound(long)}
+     * and {@link #move(long)} to access the entry's fields
+     */
+    public long probe(long key) {
+        probes.increment();
+        final int idx = 2 * ((int) key & mask);
+        final long data = entries[idx + 1];
+        if ((entries[idx] ^ data) == key && data != NO_ENTRY) {
+            hits.increment();
+            return data;
+        }
+        if (data != NO_ENTRY) {
+            collisions.increment();
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores a search result.
+     *
+     * @param key position key
+     * @param depth search depth (in half-moves) the score was obtained with, larger values are stored as 255
+     * @param bound bound type of the score, one of {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     * @param score the score
+     * @param move best move (column) found in this position or -1 if unknown, at most 1022
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        final int idx = 2 * ((int) key & mask);
+        final long existing = entries[idx + 1];
+        if (existing == NO_ENTRY) {
+            usedSlots.increment();
+        } else if ((entries[idx] ^ existing) != key && age(existing) == age && depth(existing) > depth) {
+            // keep deeper entry from the current search
+            return;
+        }
+        final long data = USED
+                | ((long) age << AGE_SHIFT)
+                | ((long) (move + 1) << MOVE_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) Math.min(depth, 255) << DEPTH_SHIFT)
+                | (score & 0xffffffffL);
+        entries[idx] = key ^ data;
+        entries[idx + 1] = data;
+    }
+
+    /**
+     * Returns the score of an entry.
+     *
+     * @param entry entry as returned by {@link #probe(long)}
+     * @return
+     */
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Returns the search depth of an entry.
+     *
+     * @param entry entry as returned by {@link #probe(long)}
+     * @return
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xff;
+    }
+
+    /**
+     * Returns the bound type of an entry.
+     *
+     * @param entry entry as returned by {@link #probe(long)}
+     * @return one of {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     */
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    /**
+     * Returns the best move of an entry.
+     *
+     * @param entry entry as returned by {@link #probe(long)}
+     * @return column or -1 if the entry holds no move
+     */
+    public static int move(long entry) {
+        return ((int) (entry >>> MOVE_SHIFT) & 0x3ff) - 1;
+    }
+
+    private static int age(long entry) {
+        return (int) (entry >>> AGE_SHIFT) & 0x7f;
+    }
+
+    /**
+     * Marks the start of a new search.
+     *
+     * Entries stored during earlier searches are replaced in favour of new entries regardless of their depth.
+     */
+    public void newSearch() {
+        age = (age + 1) & 0x7f;
+    }
+
+    /**
+     * Removes all entries and resets the statistics.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+        usedSlots.reset();
+    }
+
+    /**
+     * Returns the number of entries this table can hold.
+     *
+     * @return
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of lookups so far.
+     *
+     * @return
+     */
+    public long probes() {
+        return probes.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found an entry.
+     *
+     * @return
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found an entry for a different position in the same slot.
+     *
+     * @return
+     */
+    public long collisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * Returns the ratio of lookups that found an entry.
+     *
+     * @return hit rate between 0 and 1
+     */
+    public double hitRate() {
+        final long probeCount = probes();
+        return probeCount == 0 ? 0 : hits() / (double) probeCount;
+    }
+
+    /**
+     * Returns the ratio of slots that hold an entry.
+     *
+     * @return fill rate between 0 and 1 (approximate, concurrent stores to the same empty slot are counted more than once)
+     */
+    public double fillRate() {
+        return Math.min(1, usedSlots.sum() / (double) capacity());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TranspositionTable[ capacity=%d, fill rate=%.1f%%, probes=%d, hit rate=%.1f%%, collisions=%d ]",
+                capacity(), 100 * fillRate(), probes(), 100 * hitRate(), collisions());
+    }
+}
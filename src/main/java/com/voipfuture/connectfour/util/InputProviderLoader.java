@@ -8,6 +8,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -34,6 +37,40 @@ public class InputProviderLoader
     // like the system classloader).
     private static final ConcurrentHashMap<String,String> playerClassNames = new ConcurrentHashMap<>();
 
+    // algorithm instances are kept so that they can carry state (transposition tables etc.) from one move to the next
+    private static final Map<InstanceKey, IInputProvider> instances = new HashMap<>();
+
+    /*
+     * Key of an algorithm instance, a player gets a new instance whenever it switches to another algorithm.
+     */
+    private static final class InstanceKey
+    {
+        private final Player player;
+        private final String className;
+
+        InstanceKey(Player player, String className)
+        {
+            this.player = player;
+            this.className = className;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if ( !(obj instanceof InstanceKey) ) {
+                return false;
+            }
+            final InstanceKey other = (InstanceKey) obj;
+            return player.equals( other.player ) && className.equals( other.className );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * player.hashCode() + className.hashCode();
+        }
+    }
+
     private static final class InnerClassloader extends ClassLoader
     {
         private final ConcurrentHashMap<String, Class<?>> loadedClasses = new ConcurrentHashMap<>();
@@ -186,24 +223,54 @@ public class InputProviderLoader
         }
     }
 
-    public static IInputProvider getInputProvider(Player player)
+    /**
+     * Returns the {@link IInputProvider} implementing a computer player's {@link Player#algorithm() algorithm}.
+     *
+     * The same instance is returned for a given player until {@link #reloadAlgorithms()} gets called or the player's algorithm changes.
+     * Instances that get replaced are {@link IInputProvider#close() closed}.
+     *
+     * @param player computer player
+     * @return input provider
+     */
+    public static synchronized IInputProvider getInputProvider(Player player)
     {
         if ( !player.isComputer() )
         {
             throw new IllegalArgumentException( "Only applicable to computer players" );
         }
-        return CLASSLOADER.loadInputProvider( player );
+        final InstanceKey key = new InstanceKey( player, player.algorithm() );
+        IInputProvider instance = instances.get( key );
+        if ( instance == null )
+        {
+            // the player switched algorithms, release the previous one
+            for (Iterator<Map.Entry<InstanceKey, IInputProvider>> it = instances.entrySet().iterator(); it.hasNext(); )
+            {
+                final Map.Entry<InstanceKey, IInputProvider> entry = it.next();
+                if ( entry.getKey().player.equals( player ) )
+                {
+                    entry.getValue().close();
+                    it.remove();
+                }
+            }
+            instance = CLASSLOADER.loadInputProvider( player );
+            instances.put( key, instance );
+        }
+        return instance;
     }
 
     /**
      * Schedules all algorithm implementations for reload.
+     *
+     * All instances returned so far get {@link IInputProvider#close() closed}.
      */
-    public static void reloadAlgorithms()
+    public static synchronized void reloadAlgorithms()
     {
         if ( DEBUG )
         {
             System.out.println( "Algorithm implementations will be reloaded." );
         }
+        instances.values().forEach( IInputProvider::close );
+        instances.clear();
         CLASSLOADER = new InnerClassloader();
     }
 }
\ No newline at end of file
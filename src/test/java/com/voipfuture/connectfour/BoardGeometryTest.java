@@ -0,0 +1,60 @@
+package com.voipfuture.connectfour;
+
+import junit.framework.TestCase;
+
+public class BoardGeometryTest extends TestCase
+{
+    public void testSharedBySize() {
+
+        assertSame( BoardGeometry.of( 7, 6, 4 ), BoardGeometry.of( 7, 6, 4 ) );
+        assertSame( new Board( 7, 6 ).geometry, new Board( 7, 6 ).createCopy().geometry );
+        assertNotSame( BoardGeometry.of( 7, 6, 4 ), BoardGeometry.of( 7, 6, 5 ) );
+        assertNotSame( BoardGeometry.of( 7, 6, 4 ), BoardGeometry.of( 6, 7, 4 ) );
+    }
+
+    public void testStandardBoard() {
+
+        final BoardGeometry geometry = BoardGeometry.of( 7, 6, 4 );
+        assertEquals( 37, geometry.lineCount );
+        // the longest diagonals run through the center
+        final int center = 3 + 2 * 7;
+        final int line = geometry.cellLines[ center * BoardGeometry.DIRECTIONS + BoardGeometry.DIAGONAL_RIGHT_DOWN ];
+        assertEquals( 6, geometry.lineStarts[ line + 1 ] - geometry.lineStarts[ line ] );
+    }
+
+    public void testLines() {
+        assertLines( 7, 6, 4 );
+        assertLines( 4, 9, 4 );
+        assertLines( 10, 8, 5 );
+    }
+
+    /**
+     * checks that the lines of each direction cover every cell exactly once, with neighbouring cells next to each other
+     */
+    private static void assertLines(int width,int height,int winLength)
+    {
+        final BoardGeometry geometry = BoardGeometry.of( width, height, winLength );
+        final int[][] steps = { {1,0}, {0,1}, {1,1}, {-1,1} };
+        assertEquals( width * height * BoardGeometry.DIRECTIONS, geometry.lineStarts[ geometry.lineCount ] );
+        for ( int cell = 0 ; cell < width * height ; cell++ )
+        {
+            for ( int direction = 0 ; direction < BoardGeometry.DIRECTIONS ; direction++ )
+            {
+                final int line = geometry.cellLines[ cell * BoardGeometry.DIRECTIONS + direction ];
+                int position = geometry.lineStarts[ line ];
+                while ( position < geometry.lineStarts[ line + 1 ] && geometry.lineCells[ position ] != cell ) {
+                    position++;
+                }
+                assertTrue( position < geometry.lineStarts[ line + 1 ] );
+
+                final int x = cell % width + steps[ direction ][ 0 ];
+                final int y = cell / width + steps[ direction ][ 1 ];
+                if ( x >= 0 && x < width && y < height ) {
+                    assertEquals( x + y * width, geometry.lineCells[ position + 1 ] );
+                } else {
+                    assertEquals( geometry.lineStarts[ line + 1 ], position + 1 );
+                }
+            }
+        }
+    }
+}
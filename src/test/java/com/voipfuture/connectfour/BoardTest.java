@@ -0,0 +1,338 @@
+package com.voipfuture.connectfour;
+
+import java.util.Random;
+
+public class BoardTest extends AbstractTestHelper
+{
+    public void testMoveAndCheckWin() {
+
+        final String s = ".....\n"+
+                         ".....\n"+
+                         "...1.\n"+
+                         "..12.\n"+
+                         ".122.";
+        setupBoard( s);
+
+        Board.MoveResult result = state.board.moveAndCheck( 4, player2 );
+        assertEquals( 4, result.row );
+        assertFalse( result.isGameOver() );
+
+        result = state.board.moveAndCheck( 4, player1 );
+        assertEquals( 3, result.row );
+        assertFalse( result.isGameOver() );
+
+        result = state.board.moveAndCheck( 4, player2 );
+        assertEquals( 2, result.row );
+        assertFalse( result.isGameOver() );
+
+        result = state.board.moveAndCheck( 4, player1 );
+        assertEquals( 1, result.row );
+        assertTrue( result.isWin );
+        assertEquals( player1, result.player );
+        assertWon( player1 );
+
+        state.moveFinished( result );
+        assertEquals( 1, state.getGameCount() );
+        assertEquals( Integer.valueOf( 1 ), state.getWinCounts().get( player1 ) );
+    }
+
+    public void testMoveAndCheckDraw() {
+
+        final String s = ".2121\n"+
+                         "21212\n"+
+                         "11211\n"+
+                         "21112";
+        setupBoard( s);
+
+        final Board.MoveResult result = state.board.moveAndCheck( 0, player1 );
+        assertEquals( 0, result.row );
+        assertFalse( result.isWin );
+        assertTrue( result.isDraw );
+        assertDraw();
+    }
+
+    public void testMoveAndCheckFullColumn() {
+
+        final String s = "1....\n"+
+                         "2....\n"+
+                         "1....\n"+
+                         "2....";
+        setupBoard( s);
+
+        final Board.MoveResult result = state.board.moveAndCheck( 0, player1 );
+        assertEquals( -1, result.row );
+        assertFalse( result.isGameOver() );
+    }
+
+    public void testHash() {
+
+        final String s = ".....\n"+
+                         ".....\n"+
+                         ".....\n"+
+                         ".....\n"+
+                         ".....";
+        setupBoard( s);
+        final Board board = state.board;
+        assertEquals( 0, board.hash() );
+
+        board.move( 1, player1 );
+        board.move( 2, player2 );
+        board.move( 3, player1 );
+        final long hash = board.hash();
+        assertTrue( hash != 0 );
+        assertEquals( hash, board.createCopy().hash() );
+
+        // same position, different move order
+        final Board other = new Board( 5, 5 );
+        other.move( 3, player1 );
+        other.move( 2, player2 );
+        other.move( 1, player1 );
+        assertEquals( hash, other.hash() );
+
+        board.move( 1, player2 );
+        assertTrue( hash != board.hash() );
+        board.clear( 1, 3 );
+        assertEquals( hash, board.hash() );
+
+        board.clear();
+        assertEquals( 0, board.hash() );
+    }
+
+    public void testMakeAndUndoMove() {
+
+        final String s = ".....\n"+
+                         ".....\n"+
+                         ".....\n"+
+                         "..2..\n"+
+                         "..1..";
+        setupBoard( s);
+        final Board board = state.board;
+        final String initial = board.toString();
+        final long initialHash = board.hash();
+
+        assertEquals( 2, board.makeMove( 2, player1 ) );
+        assertEquals( 4, board.makeMove( 0, player2 ) );
+        assertEquals( 1, board.makeMove( 2, player2 ) );
+        assertEquals( 0, board.makeMove( 2, player1 ) );
+        assertEquals( -1, board.makeMove( 2, player2 ) );
+        assertEquals( 4, board.moveCount() );
+
+        assertEquals( 2, board.undoMove() );
+        assertEquals( 2, board.undoMove() );
+        assertEquals( 0, board.undoMove() );
+        assertEquals( 2, board.undoMove() );
+        assertEquals( 0, board.moveCount() );
+        assertEquals( initial, board.toString() );
+        assertEquals( initialHash, board.hash() );
+
+        try {
+            board.undoMove();
+            fail( "Should've failed" );
+        } catch(IllegalStateException e) {
+            // ok
+        }
+    }
+
+    public void testPlayableColumns() {
+
+        final String s = "..1..\n"+
+                         "..2..\n"+
+                         "..1.1\n"+
+                         "..2.2\n"+
+                         "1.1.1";
+        setupBoard( s);
+        final Board board = state.board;
+        assertEquals( 1, board.columnHeight( 0 ) );
+        assertEquals( 0, board.columnHeight( 1 ) );
+        assertEquals( 5, board.columnHeight( 2 ) );
+        assertEquals( 3, board.columnHeight( 4 ) );
+
+        final int[] columns = new int[ board.width ];
+        assertEquals( 4, board.playableColumns( columns ) );
+        assertEquals( 0, columns[0] );
+        assertEquals( 1, columns[1] );
+        assertEquals( 3, columns[2] );
+        assertEquals( 4, columns[3] );
+
+        board.clear( 2, 3 );
+        assertEquals( 1, board.columnHeight( 2 ) );
+        board.set( 2, 3, player1 );
+        assertEquals( 5, board.columnHeight( 2 ) );
+    }
+
+    public void testTileCodes() {
+
+        final Board board = new Board( 5, 5 );
+        board.move( 0, player2 );
+        board.move( 1, player1 );
+        assertEquals( 1, board.getCode( 0, 4 ) );
+        assertEquals( 2, board.getCode( 1, 4 ) );
+        final long hash = board.hash();
+
+        // tile codes follow the order of GameState#players
+        state = new GameState( board, player1, player2 );
+        assertEquals( 1, board.codeOf( player1 ) );
+        assertEquals( 2, board.codeOf( player2 ) );
+        assertEquals( 2, board.getCode( 0, 4 ) );
+        assertEquals( 1, board.getCode( 1, 4 ) );
+        assertEquals( Board.EMPTY, board.getCode( 2, 4 ) );
+        assertEquals( player2, board.get( 0, 4 ) );
+        assertEquals( player1, board.get( 1, 4 ) );
+        assertNull( board.get( 2, 4 ) );
+        assertTrue( hash != board.hash() );
+
+        final Board expected = new Board( 5, 5 );
+        expected.setPlayers( player1, player2 );
+        expected.move( 1, player1 );
+        expected.move( 0, player2 );
+        assertEquals( expected.hash(), board.hash() );
+    }
+
+    public void testPositionKey() {
+
+        final Board board = new Board( 7, 6 );
+        board.setPlayers( player1, player2 );
+        assertTrue( board.hasPositionKey() );
+        final long empty = board.positionKey( player1 );
+        assertEquals( empty, board.positionKey( player2 ) );
+
+        board.move( 3, player1 );
+        board.move( 3, player2 );
+        board.move( 0, player1 );
+        assertFalse( board.positionKey( player1 ) == board.positionKey( player2 ) );
+
+        // same tiles but the other player moved first
+        final Board other = new Board( 7, 6 );
+        other.setPlayers( player2, player1 );
+        other.move( 3, player1 );
+        other.move( 3, player2 );
+        other.move( 0, player1 );
+        assertEquals( board.positionKey( player2 ), other.positionKey( player2 ) );
+        assertEquals( board.positionKey( player1 ), other.positionKey( player1 ) );
+
+        // swapping two tiles changes the key
+        other.clear();
+        other.move( 3, player2 );
+        other.move( 3, player1 );
+        other.move( 0, player1 );
+        assertFalse( board.positionKey( player2 ) == other.positionKey( player2 ) );
+
+        assertFalse( new Board( 10, 10 ).hasPositionKey() );
+    }
+
+    public void testConnectFive() {
+
+        final Board board = new Board( 20, 15, 5 );
+        state = new GameState( board, player1, player2 );
+        for ( int x = 10 ; x < 14 ; x++ )
+        {
+            assertFalse( board.moveAndCheck( x, player1 ).isGameOver() );
+        }
+        assertOngoing();
+        assertTrue( board.moveAndCheck( 14, player1 ).isWin );
+        assertWon( player1 );
+
+        // diagonal spanning multiple bitboard words
+        board.clear();
+        for ( int i = 0 ; i < 5 ; i++ ) {
+            board.set( 15 + i, 14 - i, player2 );
+        }
+        assertWon( player2 );
+        board.clear( 17, 12 );
+        assertOngoing();
+        board.set( 17, 12, player1 );
+        assertOngoing();
+    }
+
+    public void testWinDetectionMatchesNaiveCheck() {
+
+        final Random rnd = new Random( 42 );
+        for ( int i = 0 ; i < 2000 ; i++ )
+        {
+            final int width = 4 + rnd.nextInt( 17 );
+            final int height = 4 + rnd.nextInt( 17 );
+            final int winLength = Math.min( 3 + rnd.nextInt( 4 ), Math.max( width, height ) );
+            final Board board = new Board( width, height, winLength );
+            state = new GameState( board, player1, player2 );
+            final int tiles = rnd.nextInt( width*height/winLength + 1 );
+            for ( int j = 0 ; j < tiles ; j++ )
+            {
+                final int x = rnd.nextInt( width );
+                final int y = rnd.nextInt( height );
+                if ( board.get( x, y ) == null ) {
+                    board.set( x, y, rnd.nextBoolean() ? player1 : player2 );
+                }
+            }
+            final boolean won1 = hasWinningLine( board, player1 );
+            final boolean won2 = hasWinningLine( board, player2 );
+            if ( won1 && ! won2 ) {
+                assertWon( player1 );
+            } else if ( won2 && ! won1 ) {
+                assertWon( player2 );
+            } else if ( ! won1 ) {
+                assertOngoing();
+            }
+        }
+    }
+
+    public void testWinLengthExceedingWidth() {
+
+        // single-word board where lines across all columns need shifts of 64 bits or more
+        final Board board = new Board( 4, 14, 8 );
+        state = new GameState( board, player1, player2 );
+        for ( int x = 0 ; x < 4 ; x++ ) {
+            board.set( x, 13 - x, player1 );
+        }
+        assertOngoing();
+
+        final Random rnd = new Random( 7 );
+        for ( int i = 0 ; i < 2000 ; i++ )
+        {
+            final int width = 4 + rnd.nextInt( 3 );
+            final int height = 10 + rnd.nextInt( 6 );
+            final int winLength = width + 1 + rnd.nextInt( height - width );
+            final Board b = new Board( width, height, winLength );
+            state = new GameState( b, player1, player2 );
+            for ( int x = 0 ; x < width ; x++ )
+            {
+                for ( int y = 0 ; y < height ; y++ )
+                {
+                    if ( rnd.nextInt( 3 ) != 0 ) {
+                        b.set( x, y, rnd.nextInt( 4 ) == 0 ? player2 : player1 );
+                    }
+                }
+            }
+            final boolean won1 = hasWinningLine( b, player1 );
+            final boolean won2 = hasWinningLine( b, player2 );
+            if ( won1 && ! won2 ) {
+                assertWon( player1 );
+            } else if ( won2 && ! won1 ) {
+                assertWon( player2 );
+            } else if ( ! won1 ) {
+                assertFalse( "Unexpected win on "+width+"x"+height+" board with win length "+winLength+":\n"+b, b.getState().map( c -> ! c.isDraw ).orElse( false ) );
+            }
+        }
+    }
+
+    private static boolean hasWinningLine(Board board,Player player)
+    {
+        final int[][] directions = { {1,0}, {0,1}, {1,1}, {1,-1} };
+        for ( int x = 0 ; x < board.width ; x++ )
+        {
+            for ( int y = 0 ; y < board.height ; y++ )
+            {
+                for ( int[] dir : directions )
+                {
+                    int count = 0;
+                    for ( int x0 = x, y0 = y ; x0 >= 0 && x0 < board.width && y0 >= 0 && y0 < board.height && player.equals( board.get( x0, y0 ) ) ; x0 += dir[0], y0 += dir[1] ) {
+                        count++;
+                    }
+                    if ( count >= board.winLength ) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -225,4 +225,74 @@ public class GameStateTest extends AbstractTestHelper
         setupBoard( s);
         assertWon( player1);
     }
+
+    public void testLargeBoard() {
+        // too big for the bitboard representation
+        String s = "..........\n"+
+                   "..........\n"+
+                   "..........\n"+
+                   "..........\n"+
+                   "......2...\n"+
+                   ".....21...\n"+
+                   "....2112..\n"+
+                   "...21112..";
+        setupBoard( s);
+        assertWon( player2 );
+
+        s = "..........\n"+
+            "..........\n"+
+            "..........\n"+
+            "..........\n"+
+            "..........\n"+
+            ".....21...\n"+
+            "....2112..\n"+
+            "...21112..";
+        setupBoard( s);
+        assertOngoing();
+    }
+
+    public void testMoveAndClear() {
+        final String s = ".......\n"+
+                         ".......\n"+
+                         ".......\n"+
+                         ".......\n"+
+                         ".......\n"+
+                         ".......";
+        setupBoard( s);
+        final Board board = state.board;
+        for ( int i = 0 ; i < 6 ; i++ ) {
+            assertTrue( board.hasSpaceInColumn( 3 ) );
+            assertEquals( 5 - i, board.move( 3, i % 2 == 0 ? player1 : player2 ) );
+        }
+        assertFalse( board.hasSpaceInColumn( 3 ) );
+        assertEquals( -1, board.move( 3, player1 ) );
+
+        board.clear( 3, 2 );
+        assertEquals( 2, board.move( 3, player1 ) );
+
+        board.clear();
+        assertTrue( board.isEmpty() );
+        assertEquals( 5, board.move( 3, player1 ) );
+        assertOngoing();
+    }
+
+    public void testHasEnded() {
+        final String s = ".......\n"+
+                         ".......\n"+
+                         ".......\n"+
+                         "1......\n"+
+                         "1......\n"+
+                         "1......";
+        setupBoard( s);
+        assertFalse( state.hasEnded() );
+
+        state.moveFinished( state.board.moveAndCheck( 1, player2 ) );
+        assertFalse( state.hasEnded() );
+        state.moveFinished( state.board.moveAndCheck( 0, player1 ) );
+        assertTrue( state.hasEnded() );
+        assertWon( player1 );
+
+        state.startNewGame();
+        assertFalse( state.hasEnded() );
+    }
 }
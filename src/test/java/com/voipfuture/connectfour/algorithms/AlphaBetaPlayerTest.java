@@ -0,0 +1,171 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.GameState;
+import com.voipfuture.connectfour.IInputProvider;
+import com.voipfuture.connectfour.Player;
+import com.voipfuture.connectfour.SearchStatistics;
+
+import java.awt.Color;
+import java.util.Random;
+
+public class AlphaBetaPlayerTest extends AbstractTestHelper
+{
+    @Override
+    protected Player createPlayer1() {
+        return new Player("1",true, Color.RED);
+    }
+
+    @Override
+    protected Player createPlayer2() {
+        return new Player("2",true,Color.BLUE);
+    }
+
+    public void testSameMovesAsHeuristicPlayer() {
+
+        player1.setMaxThinkDepth( 3 );
+        player2.setMaxThinkDepth( 3 );
+        final Random rnd = new Random( 0xdeadbeef );
+        for ( int i = 0 ; i < 100 ; i++ )
+        {
+            final Board board = i % 2 == 0 ? new Board( 5, 5 ) : new Board( 7, 6 );
+            state = new GameState( board, player1, player2 );
+            final int moves = 1 + rnd.nextInt( board.width * board.height / 2 );
+            for ( int j = 0 ; j < moves && ! state.isGameOver() ; j++ )
+            {
+                final int[] columns = new int[ board.width ];
+                final int count = board.playableColumns( columns );
+                board.move( columns[ rnd.nextInt( count ) ], state.currentPlayer() );
+                state.advanceToNextPlayer();
+            }
+            if ( state.isGameOver() ) {
+                continue;
+            }
+            final int expected = move( new HeuristicPlayer() );
+            assertEquals( "Position:\n"+board, expected, move( new AlphaBetaPlayer() ) );
+        }
+    }
+
+    public void testSameMovesInParallel() {
+
+        final Random rnd = new Random( 42 );
+        final HeuristicPlayer heuristicPlayer = new HeuristicPlayer();
+        for ( int i = 0 ; i < 20 ; i++ )
+        {
+            final Board board = new Board( 7, 6 );
+            state = new GameState( board, player1, player2 );
+            final int moves = 1 + rnd.nextInt( 20 );
+            for ( int j = 0 ; j < moves && ! state.isGameOver() ; j++ )
+            {
+                final int[] columns = new int[ board.width ];
+                board.move( columns[ rnd.nextInt( board.playableColumns( columns ) ) ], state.currentPlayer() );
+                state.advanceToNextPlayer();
+            }
+            if ( state.isGameOver() ) {
+                continue;
+            }
+            final Player player = state.currentPlayer();
+            player.setMaxThinkDepth( 3 );
+            player.setSearchThreads( 1 );
+            final int expected = move( new HeuristicPlayer() );
+            final int expectedAlphaBeta = move( new AlphaBetaPlayer() );
+
+            player.setSearchThreads( 4 );
+            assertEquals( "Position:\n"+board, expected, move( heuristicPlayer ) );
+            assertEquals( "Position:\n"+board, expectedAlphaBeta, move( new AlphaBetaPlayer() ) );
+        }
+    }
+
+    public void testPondering() throws InterruptedException {
+
+        final Board board = new Board( 7, 6 );
+        state = new GameState( board, player1, player2 );
+        board.move( 3, player2 );
+        player1.setMaxThinkDepth( 6 );
+
+        // time the answer to the opponent's reply without pondering
+        final AlphaBetaPlayer player = new AlphaBetaPlayer();
+        final int column = move( player );
+        board.move( column, player1 );
+        board.move( 3, player2 );
+        long start = System.nanoTime();
+        move( new AlphaBetaPlayer() );
+        final long withoutPondering = System.nanoTime() - start;
+
+        // same position, but this time the player could think about the reply while waiting for it
+        board.clear();
+        board.move( 3, player2 );
+        player1.setPondering( true );
+        assertEquals( column, move( player ) );
+        board.move( column, player1 );
+        Thread.sleep( 1000 );
+        board.move( 3, player2 );
+        start = System.nanoTime();
+        move( player );
+        final long withPondering = System.nanoTime() - start;
+        assertTrue( "Pondering did not help, "+withPondering/1000000+" ms vs. "+withoutPondering/1000000+" ms",
+                    withPondering * 2 < withoutPondering );
+
+        player1.setPondering( false );
+        board.move( 0, player1 );
+        board.move( 0, player2 );
+        move( player );
+        assertTrue( Thread.getAllStackTraces().keySet().stream().noneMatch( t -> t.getName().startsWith( "ponder-" ) ) );
+    }
+
+    public void testStatistics() {
+
+        final Board board = new Board( 7, 6 );
+        state = new GameState( board, player1, player2 );
+        board.move( 3, player2 );
+        board.move( 3, player1 );
+        board.move( 2, player2 );
+        player1.setMaxThinkDepth( 5 );
+
+        final AlphaBetaSearch sequential = new AlphaBetaSearch( board, player1, player2 );
+        sequential.getNextMove( 5 );
+        final SearchStatistics statistics = sequential.statistics();
+        assertEquals( sequential.nodeCount(), statistics.nodes );
+        assertTrue( statistics.evaluations > 0 && statistics.evaluations < statistics.nodes );
+        assertTrue( statistics.cutoffs > 0 );
+        assertEquals( 0, statistics.transpositionTableProbes );
+        assertEquals( 7, statistics.maxDepth );
+        assertTrue( statistics.wallTimeNanos > 0 );
+
+        // the statistics of all threads are merged
+        player1.setSearchThreads( 4 );
+        move( new AlphaBetaPlayer() );
+        assertTrue( player1.lastMoveStatistics.transpositionTableHits > 0 );
+        assertTrue( player1.lastMoveStatistics.transpositionTableHits <= player1.lastMoveStatistics.transpositionTableProbes );
+        assertEquals( 7, player1.lastMoveStatistics.maxDepth );
+        assertTrue( player1.lastMoveStatistics.nodes > statistics.nodes / 4 );
+
+        player1.lastMoveStatistics.clear();
+        move( new HeuristicPlayer() );
+        assertTrue( player1.lastMoveStatistics.nodes > statistics.nodes );
+        assertEquals( 7, player1.lastMoveStatistics.maxDepth );
+    }
+
+    private int move(IInputProvider player)
+    {
+        final IInputProvider.MoveEvent event = (IInputProvider.MoveEvent) player.readInput( state ).get();
+        assertEquals( state.currentPlayer(), event.player );
+        return event.column;
+    }
+
+    public void testThinkTime() {
+
+        final Board board = new Board( 7, 6 );
+        state = new GameState( board, player1, player2 );
+        board.move( 3, player2 );
+        player1.setThinkTime( 200 );
+
+        final long start = System.currentTimeMillis();
+        final int column = move( new AlphaBetaPlayer() );
+        final long elapsed = System.currentTimeMillis() - start;
+        assertTrue( column >= 0 && column < board.width );
+        assertTrue( "Search took "+elapsed+" ms", elapsed < 1000 );
+        assertTrue( player1.lastSearchDepth > 1 );
+    }
+}
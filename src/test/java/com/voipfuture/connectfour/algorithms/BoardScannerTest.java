@@ -0,0 +1,164 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+
+import java.awt.Color;
+import java.util.Optional;
+import java.util.Random;
+
+public class BoardScannerTest extends AbstractTestHelper
+{
+    @Override
+    protected Player createPlayer1() {
+        return new Player("1",true, Color.RED);
+    }
+
+    @Override
+    protected Player createPlayer2() {
+        return new Player("2",true,Color.BLUE);
+    }
+
+    public void testSameAsSeparateScans() {
+        assertSameAsSeparateScans( 7, 6, 4 );
+        assertSameAsSeparateScans( 5, 4, 3 );
+        assertSameAsSeparateScans( 4, 9, 4 );
+        assertSameAsSeparateScans( 10, 8, 5 );
+    }
+
+    public void testSearchScore() {
+
+        final String s = ".....\n" +
+                         ".....\n" +
+                         "....2\n" +
+                         "....2\n" +
+                         "11112";
+        setupBoard( s );
+        final BoardScanner scanner = new BoardScanner();
+        assertTrue( scanner.scan( state.board, 1 ).isGameOver() );
+        assertEquals( Heuristic.WIN_SCORE, scanner.getScore() );
+        assertEquals( Heuristic.WIN_SCORE, scanner.getSearchScore() );
+
+        assertTrue( scanner.scan( state.board, 2 ).isGameOver() );
+        // three tiles in column 4 with a free cell above them
+        assertEquals( 35, scanner.getScore() );
+        assertEquals( -Heuristic.WIN_SCORE, scanner.getSearchScore() );
+    }
+
+    /**
+     * plays random games and compares the scanner with getState() and with the original cell-by-cell heuristic after
+     * each move, for both players
+     */
+    private void assertSameAsSeparateScans(int width, int height, int winLength)
+    {
+        final Random random = new Random( 4711 );
+        final int[] columns = new int[ width ];
+        final BoardScanner scanner = new BoardScanner();
+        for ( int game = 0 ; game < 50 ; game++ )
+        {
+            final Board board = new Board( width, height, winLength );
+            board.setPlayers( player1, player2 );
+            Player current = player1;
+            for ( int count = board.playableColumns( columns ) ; count > 0 ; count = board.playableColumns( columns ) )
+            {
+                final int x = columns[ random.nextInt( count ) ];
+                board.makeMove( x, current );
+                current = current == player1 ? player2 : player1;
+                final Optional<Board.WinningCondition> state = board.getState();
+                for ( int code = 1 ; code <= 2 ; code++ )
+                {
+                    scanner.scan( board, code );
+                    assertEquals( board.toString(), referenceScore( board, code ), scanner.getScore() );
+                    assertEquals( board.toString(), state.isPresent(), scanner.isGameOver() );
+                    if ( state.isPresent() )
+                    {
+                        final int searchScore = state.get().isDraw ? Heuristic.DRAW_SCORE :
+                                board.codeOf( state.get().player() ) == code ? Heuristic.WIN_SCORE : -Heuristic.WIN_SCORE;
+                        assertEquals( board.toString(), searchScore, scanner.getSearchScore() );
+                    }
+                }
+                if ( state.isPresent() ) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * the heuristic as it was originally written, walking the rows, columns and diagonals cell by cell
+     */
+    private static int referenceScore(Board board, int code)
+    {
+        final int[][] starts = new int[ 3 * (board.width + board.height) ][];
+        int lines = 0;
+        for ( int y = 0 ; y < board.height ; y++ ) {
+            starts[ lines++ ] = new int[] { 0, y, 1, 0 };
+        }
+        for ( int x = 0 ; x < board.width ; x++ ) {
+            starts[ lines++ ] = new int[] { x, 0, 0, 1 };
+        }
+        for ( int y = 0 ; y < board.height ; y++ ) {
+            starts[ lines++ ] = new int[] { 0, y, 1, 1 };
+        }
+        for ( int x = 1 ; x < board.width ; x++ ) {
+            starts[ lines++ ] = new int[] { x, 0, 1, 1 };
+        }
+        for ( int y = 0 ; y < board.height ; y++ ) {
+            starts[ lines++ ] = new int[] { board.width - 1, y, -1, 1 };
+        }
+        for ( int x = board.width - 2 ; x >= 0 ; x-- ) {
+            starts[ lines++ ] = new int[] { x, 0, -1, 1 };
+        }
+
+        final int[] state = new int[ 3 ]; // count, currentScore, totalScore
+        for ( int i = 0 ; i < lines ; i++ )
+        {
+            int x = starts[ i ][ 0 ];
+            int y = starts[ i ][ 1 ];
+            reset( state, board.getCode( x, y ), code );
+            for ( x += starts[ i ][ 2 ], y += starts[ i ][ 3 ] ; x >= 0 && x < board.width && y < board.height ; x += starts[ i ][ 2 ], y += starts[ i ][ 3 ] )
+            {
+                final int tile = board.getCode( x, y );
+                tileScore( state, tile, code );
+                if ( state[ 0 ] >= board.winLength ) {
+                    return Heuristic.WIN_SCORE;
+                }
+                if ( tile == Board.EMPTY ) {
+                    reset( state, Board.EMPTY, code );
+                }
+            }
+        }
+        if ( board.isFull() ) {
+            return Heuristic.DRAW_SCORE;
+        }
+        reset( state, Board.EMPTY, code );
+        return state[ 2 ];
+    }
+
+    private static void reset(int[] state, int tile, int code)
+    {
+        if ( state[ 0 ] >= 2 ) {
+            state[ 2 ] += state[ 1 ];
+        }
+        state[ 0 ] = 0;
+        state[ 1 ] = 0;
+        tileScore( state, tile, code );
+    }
+
+    private static void tileScore(int[] state, int tile, int code)
+    {
+        if ( tile == Board.EMPTY ) {
+            state[ 1 ] = state[ 0 ] == 0 ? Heuristic.FREE_TILE_SCORE : state[ 1 ] + Heuristic.FREE_TILE_SCORE;
+        } else if ( tile == code ) {
+            state[ 0 ]++;
+            state[ 1 ] += Heuristic.PLAYER_TILE_SCORE;
+        } else {
+            if ( state[ 0 ] >= 2 ) {
+                state[ 2 ] += state[ 1 ];
+            }
+            state[ 0 ] = 0;
+            state[ 1 ] = 0;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EvaluationCacheTest extends AbstractTestHelper
+{
+    @Override
+    protected Player createPlayer1() {
+        return new Player("1",true, Color.RED);
+    }
+
+    @Override
+    protected Player createPlayer2() {
+        return new Player("2",true,Color.BLUE);
+    }
+
+    public void testStoreAndProbe() {
+
+        final EvaluationCache cache = new EvaluationCache( 1 );
+        assertEquals( 131072, cache.capacity() );
+        assertEquals( EvaluationCache.NO_ENTRY, cache.probe( 12345 ) );
+
+        cache.store( 12345, -4711 );
+        assertEquals( -4711, EvaluationCache.score( cache.probe( 12345 ) ) );
+        cache.store( 0x7654321012345678L, Heuristic.WIN_SCORE );
+        assertEquals( Heuristic.WIN_SCORE, EvaluationCache.score( cache.probe( 0x7654321012345678L ) ) );
+
+        assertEquals( 3, cache.probes() );
+        assertEquals( 2, cache.hits() );
+        assertEquals( 1, cache.misses() );
+    }
+
+    public void testReplacement() {
+
+        final EvaluationCache cache = new EvaluationCache( 1 );
+        final long key1 = 42;
+        final long key2 = 42 | 1L << 40; // same slot
+
+        cache.store( key1, 1 );
+        cache.store( key2, 2 );
+        assertEquals( EvaluationCache.NO_ENTRY, cache.probe( key1 ) );
+        assertEquals( 2, EvaluationCache.score( cache.probe( key2 ) ) );
+
+        cache.clear();
+        assertEquals( EvaluationCache.NO_ENTRY, cache.probe( key2 ) );
+        assertEquals( 1, cache.probes() );
+    }
+
+    public void testConcurrentAccess() throws InterruptedException {
+
+        // a tiny cache, so the threads keep overwriting each other's entries
+        final EvaluationCache cache = new EvaluationCache( 1 );
+        final AtomicInteger wrongScores = new AtomicInteger();
+        final List<Thread> threads = new ArrayList<>();
+        for ( int i = 0 ; i < 4 ; i++ )
+        {
+            final long seed = i;
+            threads.add( new Thread( () ->
+            {
+                final Random random = new Random( seed );
+                for ( int j = 0 ; j < 200_000 ; j++ )
+                {
+                    final long key = random.nextInt( 1_000_000 ) * 0x9E3779B97F4A7C15L;
+                    final long entry = cache.probe( key );
+                    if ( entry == EvaluationCache.NO_ENTRY ) {
+                        cache.store( key, (int) (key >>> 40) );
+                    } else if ( EvaluationCache.score( entry ) != (int) (key >>> 40) ) {
+                        wrongScores.incrementAndGet();
+                    }
+                }
+            } ) );
+        }
+        threads.forEach( Thread::start );
+        for ( Thread thread : threads ) {
+            thread.join();
+        }
+        assertEquals( 0, wrongScores.get() );
+        assertEquals( 800_000, cache.probes() );
+        assertTrue( cache.hits() > 0 );
+    }
+
+    public void testKeysDependOnBoardSize() {
+
+        // tiles at the same offset x + y*width on boards of different sizes have the same hash
+        final Board board1 = new Board( 7, 6 );
+        final Board board2 = new Board( 6, 7 );
+        final Board board3 = new Board( 7, 6, 5 );
+        board1.set( 3, 5, player1 );
+        board2.set( 2, 6, player1 );
+        board3.set( 3, 5, player1 );
+        assertEquals( board1.hash(), board2.hash() );
+        assertEquals( board1.hash(), board3.hash() );
+
+        final EvaluationCache cache = new EvaluationCache( 1 );
+        cache.store( TranspositionTable.key( board1, player2 ), 42 );
+        assertEquals( 42, EvaluationCache.score( cache.probe( TranspositionTable.key( board1, player2 ) ) ) );
+        assertEquals( EvaluationCache.NO_ENTRY, cache.probe( TranspositionTable.key( board2, player2 ) ) );
+        assertEquals( EvaluationCache.NO_ENTRY, cache.probe( TranspositionTable.key( board3, player2 ) ) );
+    }
+
+    public void testSameMovesAsWithoutCache() {
+
+        final Random random = new Random( 4711 );
+        final int[] columns = new int[ 7 ];
+        final EvaluationCache cache = new EvaluationCache( 4 );
+        for ( int game = 0 ; game < 5 ; game++ )
+        {
+            final Board board = new Board( 7, 6 );
+            board.setPlayers( player1, player2 );
+            Player current = player1;
+            for ( int i = 0 ; i < 8 ; i++ )
+            {
+                final int count = board.playableColumns( columns );
+                board.makeMove( columns[ random.nextInt( count ) ], current );
+                current = current == player1 ? player2 : player1;
+            }
+            final Player next = current == player1 ? player2 : player1;
+            final HeuristicPlayer.GamePrediction withoutCache = new HeuristicPlayer.GamePrediction( current, next, 3 );
+            final HeuristicPlayer.GamePrediction withCache = new HeuristicPlayer.GamePrediction( current, next, 3, cache, Evaluator.RUNS );
+            assertEquals( withoutCache.getNextMove( board ).column, withCache.getNextMove( board ).column );
+            assertTrue( withCache.statistics.evaluations < withoutCache.statistics.evaluations );
+        }
+        assertTrue( cache.hitRate() > 0.5 );
+    }
+}
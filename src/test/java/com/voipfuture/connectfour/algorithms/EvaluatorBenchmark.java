@@ -0,0 +1,91 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+
+import java.awt.Color;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Measures how many positions per second {@link Heuristic} and {@link ThreatEvaluator} score, and how many bytes both
+ * allocate per position.
+ *
+ * The positions are taken from random games, so they hold anything from a few tiles to an almost full board.
+ *
+ * Not a unit test, run it manually using <code>EvaluatorBenchmark [width] [height] [winLength] [seconds]</code>.
+ */
+public class EvaluatorBenchmark
+{
+    private static final int POSITIONS = 1024;
+
+    private static int sum;
+
+    public static void main(String[] args)
+    {
+        final int width = args.length > 0 ? Integer.parseInt( args[0] ) : 7;
+        final int height = args.length > 1 ? Integer.parseInt( args[1] ) : 6;
+        final int winLength = args.length > 2 ? Integer.parseInt( args[2] ) : 4;
+        final int seconds = args.length > 3 ? Integer.parseInt( args[3] ) : 5;
+
+        final Player player1 = new Player( "1", true, Color.RED );
+        final Player player2 = new Player( "2", true, Color.BLUE );
+        final Board[] boards = new Board[ POSITIONS ];
+        final Player[] players = new Player[ POSITIONS ];
+        final Random random = new Random( 4711 );
+        final int[] columns = new int[ width ];
+        for ( int i = 0 ; i < POSITIONS ; i++ )
+        {
+            final Board board = new Board( width, height, winLength );
+            board.setPlayers( player1, player2 );
+            final int moves = random.nextInt( width * height );
+            Player current = player1;
+            for ( int count = board.playableColumns( columns ), move = 0 ; count > 0 && move < moves ; count = board.playableColumns( columns ), move++ )
+            {
+                final int x = columns[ random.nextInt( count ) ];
+                if ( board.isWinningTile( x, board.makeMove( x, current ) ) ) {
+                    break;
+                }
+                current = current == player1 ? player2 : player1;
+            }
+            boards[i] = board;
+            players[i] = current;
+        }
+
+        System.out.println( POSITIONS+" positions from random games on a "+width+"x"+height+" board, "+winLength+" in a row to win" );
+        measure( "Heuristic", seconds, boards, players, Evaluator.RUNS );
+        measure( "ThreatEvaluator", seconds, boards, players, new ThreatEvaluator( width, height, winLength ) );
+    }
+
+    private static void measure(String name, int seconds, Board[] boards, Player[] players, Evaluator evaluator)
+    {
+        // warm-up
+        for ( int i = 0 ; i < 500_000 ; i++ ) {
+            sum += evaluator.getScore( boards[ i % POSITIONS ], players[ i % POSITIONS ] );
+        }
+        final long allocatedBefore = allocatedBytes();
+        final long start = System.nanoTime();
+        final long end = start + seconds * 1_000_000_000L;
+        long positions = 0;
+        do
+        {
+            for ( int i = 0 ; i < POSITIONS ; i++ ) {
+                sum += evaluator.getScore( boards[i], players[i] );
+            }
+            positions += POSITIONS;
+        } while ( System.nanoTime() < end );
+        final double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000d;
+        final long allocated = allocatedBytes() - allocatedBefore;
+        System.out.println( String.format( "%-16s %,12.0f positions/s, %6.1f ns per position, %.2f bytes allocated per position",
+                                           name, positions / elapsedSeconds, elapsedSeconds * 1e9 / positions, allocated / (double) positions ) );
+    }
+
+    private static long allocatedBytes()
+    {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if ( bean instanceof com.sun.management.ThreadMXBean ) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+}
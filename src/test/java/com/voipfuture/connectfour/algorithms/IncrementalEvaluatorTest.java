@@ -0,0 +1,78 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+
+import java.awt.Color;
+import java.util.Random;
+
+public class IncrementalEvaluatorTest extends AbstractTestHelper
+{
+    @Override
+    protected Player createPlayer1() {
+        return new Player("1",true, Color.RED);
+    }
+
+    @Override
+    protected Player createPlayer2() {
+        return new Player("2",true,Color.BLUE);
+    }
+
+    public void testSameScoresAsHeuristic() {
+        assertSameScores( 7, 6, 4 );
+        assertSameScores( 5, 4, 3 );
+        assertSameScores( 4, 9, 4 );
+        assertSameScores( 10, 8, 5 );
+    }
+
+    public void testStartFromPosition() {
+
+        final String s = "1.121\n" +
+                         "2.222\n" +
+                         "1.211\n" +
+                         "1.112\n" +
+                         "2.212";
+        setupBoard( s );
+        final IncrementalEvaluator evaluator = new IncrementalEvaluator( state.board );
+        assertEquals( Heuristic.getScore( state.board, player1 ), evaluator.getScore( 1 ) );
+        assertEquals( Heuristic.getScore( state.board, player2 ), evaluator.getScore( 2 ) );
+    }
+
+    /**
+     * plays random games, including moves after a player has won, and compares the scores after each move and after
+     * taking the moves back
+     */
+    private void assertSameScores(int width, int height, int winLength)
+    {
+        final Random random = new Random( 4711 );
+        final int[] columns = new int[ width ];
+        for ( int game = 0 ; game < 50 ; game++ )
+        {
+            final Board board = new Board( width, height, winLength );
+            board.setPlayers( player1, player2 );
+            final IncrementalEvaluator evaluator = new IncrementalEvaluator( board );
+            assertSameScores( board, evaluator );
+            Player current = player1;
+            for ( int count = board.playableColumns( columns ) ; count > 0 ; count = board.playableColumns( columns ) )
+            {
+                final int x = columns[ random.nextInt( count ) ];
+                evaluator.makeMove( x, board.makeMove( x, current ), board.codeOf( current ) );
+                assertSameScores( board, evaluator );
+                current = current == player1 ? player2 : player1;
+            }
+            while ( board.moveCount() > 0 )
+            {
+                board.undoMove();
+                evaluator.undoMove();
+                assertSameScores( board, evaluator );
+            }
+        }
+    }
+
+    private void assertSameScores(Board board, IncrementalEvaluator evaluator)
+    {
+        assertEquals( board.toString(), Heuristic.getScore( board, player1 ), evaluator.getScore( 1 ) );
+        assertEquals( board.toString(), Heuristic.getScore( board, player2 ), evaluator.getScore( 2 ) );
+    }
+}
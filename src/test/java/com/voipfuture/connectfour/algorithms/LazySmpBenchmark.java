@@ -0,0 +1,76 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.GameState;
+import com.voipfuture.connectfour.Player;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the time {@link LazySmpPlayer} needs to reach a fixed search depth with 1, 2, 4, 8 and 16 threads.
+ *
+ * Not a unit test, run it manually using <code>LazySmpBenchmark [maxThinkDepth] [positions]</code>.
+ */
+public class LazySmpBenchmark
+{
+    private static final int[] THREADS = { 1, 2, 4, 8, 16 };
+
+    public static void main(String[] args)
+    {
+        final int maxThinkDepth = args.length > 0 ? Integer.parseInt( args[0] ) : 8;
+        final int positionCount = args.length > 1 ? Integer.parseInt( args[1] ) : 20;
+
+        final Player player1 = new Player( "1", true, Color.RED );
+        final Player player2 = new Player( "2", true, Color.BLUE );
+        final List<GameState> positions = createPositions( positionCount, player1, player2 );
+        player1.setMaxThinkDepth( maxThinkDepth );
+        player2.setMaxThinkDepth( maxThinkDepth );
+
+        System.out.println( "Time to depth "+(maxThinkDepth+2)+" on "+positions.size()+" positions, "+
+                            Runtime.getRuntime().availableProcessors()+" CPUs available" );
+        double singleThreadMillis = 0;
+        for ( int threads : THREADS )
+        {
+            player1.setSearchThreads( threads );
+            player2.setSearchThreads( threads );
+            final LazySmpPlayer player = new LazySmpPlayer();
+            // warm-up
+            player.readInput( positions.get( 0 ) );
+
+            final long start = System.nanoTime();
+            for ( GameState position : positions ) {
+                player.readInput( position );
+            }
+            final double millis = (System.nanoTime() - start) / 1_000_000d;
+            if ( threads == 1 ) {
+                singleThreadMillis = millis;
+            }
+            System.out.println( String.format( "%2d threads: %8.1f ms per position, speed-up %.2f",
+                                               threads, millis / positions.size(), singleThreadMillis / millis ) );
+        }
+    }
+
+    private static List<GameState> createPositions(int count, Player player1, Player player2)
+    {
+        final Random rnd = new Random( 0xc0ffee );
+        final List<GameState> result = new ArrayList<>();
+        while ( result.size() < count )
+        {
+            final Board board = new Board( 7, 6 );
+            final GameState state = new GameState( board, player1, player2 );
+            for ( int moves = 4 + rnd.nextInt( 8 ) ; moves > 0 && ! state.isGameOver() ; moves-- )
+            {
+                final int[] columns = new int[ board.width ];
+                board.move( columns[ rnd.nextInt( board.playableColumns( columns ) ) ], state.currentPlayer() );
+                state.advanceToNextPlayer();
+            }
+            if ( ! state.isGameOver() ) {
+                result.add( state );
+            }
+        }
+        return result;
+    }
+}
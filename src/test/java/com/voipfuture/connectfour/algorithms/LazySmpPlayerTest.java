@@ -0,0 +1,103 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.GameState;
+import com.voipfuture.connectfour.IInputProvider;
+import com.voipfuture.connectfour.Player;
+
+import java.awt.Color;
+import java.util.Random;
+
+public class LazySmpPlayerTest extends AbstractTestHelper
+{
+    @Override
+    protected Player createPlayer1() {
+        return new Player("1",true, Color.RED);
+    }
+
+    @Override
+    protected Player createPlayer2() {
+        return new Player("2",true,Color.BLUE);
+    }
+
+    public void testSingleThreadSameMovesAsAlphaBetaPlayer() {
+
+        final Random rnd = new Random( 4711 );
+        for ( int i = 0 ; i < 20 ; i++ )
+        {
+            final Board board = new Board( 7, 6 );
+            state = new GameState( board, player1, player2 );
+            final int moves = 1 + rnd.nextInt( 20 );
+            for ( int j = 0 ; j < moves && ! state.isGameOver() ; j++ )
+            {
+                final int[] columns = new int[ board.width ];
+                board.move( columns[ rnd.nextInt( board.playableColumns( columns ) ) ], state.currentPlayer() );
+                state.advanceToNextPlayer();
+            }
+            if ( state.isGameOver() ) {
+                continue;
+            }
+            state.currentPlayer().setMaxThinkDepth( 3 );
+            assertEquals( "Position:\n"+board, move( new AlphaBetaPlayer() ), move( new LazySmpPlayer() ) );
+        }
+    }
+
+    public void testDepthWithSeveralThreads() {
+
+        final Board board = new Board( 7, 6 );
+        state = new GameState( board, player1, player2 );
+        board.move( 3, player2 );
+        board.move( 3, player1 );
+        board.move( 2, player2 );
+        player1.setSearchThreads( 4 );
+        player1.setMaxThinkDepth( 5 );
+
+        final int column = move( new LazySmpPlayer() );
+        assertTrue( board.hasSpaceInColumn( column ) );
+        assertEquals( 7, player1.lastSearchDepth );
+    }
+
+    public void testThinkTimeWithSeveralThreads() {
+
+        final Board board = new Board( 7, 6 );
+        state = new GameState( board, player1, player2 );
+        board.move( 3, player2 );
+        player1.setThinkTime( 200 );
+        player1.setSearchThreads( 4 );
+
+        final long start = System.currentTimeMillis();
+        final int column = move( new LazySmpPlayer() );
+        final long elapsed = System.currentTimeMillis() - start;
+        assertTrue( column >= 0 && column < board.width );
+        assertTrue( "Search took "+elapsed+" ms", elapsed < 1000 );
+        assertTrue( player1.lastSearchDepth > 1 );
+    }
+
+    public void testNoHelpersWithoutTranspositionTable() {
+
+        final Board board = new Board( 7, 6 );
+        state = new GameState( board, player1, player2 );
+        board.move( 3, player2 );
+        board.move( 3, player1 );
+        board.move( 2, player2 );
+        player1.setTranspositionTableSize( 0 );
+        player1.setMaxThinkDepth( 4 );
+
+        player1.lastMoveStatistics.clear();
+        final int expected = move( new LazySmpPlayer() );
+        final long nodes = player1.lastMoveStatistics.nodes;
+
+        player1.setSearchThreads( 4 );
+        player1.lastMoveStatistics.clear();
+        assertEquals( expected, move( new LazySmpPlayer() ) );
+        assertEquals( nodes, player1.lastMoveStatistics.nodes );
+    }
+
+    private int move(IInputProvider player)
+    {
+        final IInputProvider.MoveEvent event = (IInputProvider.MoveEvent) player.readInput( state ).get();
+        assertEquals( state.currentPlayer(), event.player );
+        return event.column;
+    }
+}
@@ -0,0 +1,85 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.GameState;
+import com.voipfuture.connectfour.IInputProvider;
+import com.voipfuture.connectfour.Player;
+
+import java.awt.Color;
+import java.util.SplittableRandom;
+
+public class MonteCarloPlayerTest extends AbstractTestHelper
+{
+    @Override
+    protected Player createPlayer1() {
+        return new Player("1",true, Color.RED);
+    }
+
+    @Override
+    protected Player createPlayer2() {
+        return new Player("2",true,Color.BLUE);
+    }
+
+    public void testTakesWin() {
+
+        final Board board = new Board( 7, 6 );
+        state = new GameState( board, player1, player2 );
+        board.move( 0, player1 );
+        board.move( 6, player2 );
+        board.move( 1, player1 );
+        board.move( 6, player2 );
+        board.move( 2, player1 );
+        board.move( 5, player2 );
+        player1.setThinkTime( 100 );
+
+        assertEquals( 3, move( new MonteCarloPlayer() ) );
+    }
+
+    public void testBlocksWin() {
+
+        final Board board = new Board( 7, 6 );
+        state = new GameState( board, player1, player2 );
+        board.move( 6, player1 );
+        board.move( 0, player2 );
+        board.move( 6, player1 );
+        board.move( 1, player2 );
+        board.move( 5, player1 );
+        board.move( 2, player2 );
+        player1.setThinkTime( 300 );
+        player1.setSearchThreads( 2 );
+
+        assertEquals( 3, move( new MonteCarloPlayer() ) );
+    }
+
+    public void testTreeReuse() {
+
+        final Board board = new Board( 7, 6 );
+        board.setPlayers( player1, player2 );
+        board.move( 3, player1 );
+
+        final MonteCarloTree tree = new MonteCarloTree( 100_000 );
+        tree.reset( board, player2, player1 );
+        tree.search( System.nanoTime() + 100_000_000L, new SplittableRandom( 4711 ) );
+        assertTrue( tree.rootVisits() > 0 );
+        assertTrue( tree.size() > 1 );
+
+        board.move( tree.bestMove(), player2 );
+        board.move( 3, player1 );
+        assertTrue( tree.advanceTo( board, player2 ) );
+        assertTrue( tree.rootVisits() > 0 );
+
+        // positions that do not follow from the current root are rejected
+        final Board other = new Board( 7, 6 );
+        other.setPlayers( player1, player2 );
+        other.move( 0, player1 );
+        assertFalse( tree.advanceTo( other, player2 ) );
+    }
+
+    private int move(IInputProvider player)
+    {
+        final IInputProvider.MoveEvent event = (IInputProvider.MoveEvent) player.readInput( state ).get();
+        assertEquals( state.currentPlayer(), event.player );
+        return event.column;
+    }
+}
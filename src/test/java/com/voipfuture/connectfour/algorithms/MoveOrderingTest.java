@@ -0,0 +1,71 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.GameState;
+
+import java.util.Random;
+
+public class MoveOrderingTest extends AbstractTestHelper
+{
+    public void testOrder() {
+
+        final Board board = new Board( 7, 6 );
+        state = new GameState( board, player1, player2 );
+        final MoveOrdering ordering = new MoveOrdering( board.width );
+        final int[] moves = new int[ board.width ];
+
+        assertEquals( 7, ordering.orderMoves( board, 0, 1, -1, moves ) );
+        assertOrder( moves, 3, 2, 4, 1, 5, 0, 6 );
+
+        ordering.orderMoves( board, 0, 1, 6, moves );
+        assertOrder( moves, 6, 3, 2, 4, 1, 5, 0 );
+
+        ordering.cutoff( 1, 1, 0, 1 );
+        ordering.cutoff( 1, 1, 5, 1 );
+        ordering.orderMoves( board, 1, 1, 6, moves );
+        assertOrder( moves, 6, 5, 0, 3, 2, 4, 1 );
+
+        // killer moves are per ply, history scores are per player
+        ordering.orderMoves( board, 2, 1, -1, moves );
+        assertOrder( moves, 5, 0, 3, 2, 4, 1, 6 );
+        ordering.orderMoves( board, 2, 2, -1, moves );
+        assertOrder( moves, 3, 2, 4, 1, 5, 0, 6 );
+    }
+
+    public void testFewerNodesWithSameMoves() {
+
+        final Random rnd = new Random( 1234 );
+        long unorderedNodes = 0;
+        long orderedNodes = 0;
+        for ( int i = 0 ; i < 20 ; i++ )
+        {
+            final Board board = new Board( 7, 6 );
+            state = new GameState( board, player1, player2 );
+            for ( int j = 2 + rnd.nextInt( 10 ) ; j > 0 && ! state.isGameOver() ; j-- )
+            {
+                final int[] columns = new int[ board.width ];
+                board.move( columns[ rnd.nextInt( board.playableColumns( columns ) ) ], state.currentPlayer() );
+                state.advanceToNextPlayer();
+            }
+            if ( state.isGameOver() ) {
+                continue;
+            }
+            final AlphaBetaSearch unordered = new AlphaBetaSearch( board, state.currentPlayer(), state.nextPlayer() );
+            unordered.setMoveOrdering( null );
+            final AlphaBetaSearch ordered = new AlphaBetaSearch( board, state.currentPlayer(), state.nextPlayer() );
+            assertEquals( unordered.getNextMove( 3 ), ordered.getNextMove( 3 ) );
+            unorderedNodes += unordered.nodeCount();
+            orderedNodes += ordered.nodeCount();
+        }
+        assertTrue( "Expected far fewer nodes with move ordering but got "+orderedNodes+" vs. "+unorderedNodes,
+                    orderedNodes * 2 < unorderedNodes );
+    }
+
+    private static void assertOrder(int[] actual,int... expected)
+    {
+        for ( int i = 0 ; i < expected.length ; i++ ) {
+            assertEquals( "Mismatch at index "+i, expected[i], actual[i] );
+        }
+    }
+}
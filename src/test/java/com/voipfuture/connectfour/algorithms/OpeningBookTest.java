@@ -0,0 +1,89 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.GameState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class OpeningBookTest extends AbstractTestHelper
+{
+    private Path file;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        file = Files.createTempFile( "openingbook", ".bin" );
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        Files.deleteIfExists( file );
+        super.tearDown();
+    }
+
+    public void testWriteAndRead() throws IOException {
+
+        final int count = new OpeningBookGenerator( 5, 4, 4, 2, 2 ).write( file );
+        final OpeningBook book = OpeningBook.open( file );
+        // empty board, 3 positions after the first move and 5+4+4 after the second move
+        assertEquals( 1 + 3 + 13, count );
+        assertEquals( count, book.size() );
+        assertEquals( 2, book.plies() );
+
+        final Board board = new Board( 5, 4 );
+        state = new GameState( board, player1, player2 );
+        for ( int x = 0 ; x < board.width ; x++ )
+        {
+            for ( int y = 0 ; y < board.width ; y++ )
+            {
+                board.clear();
+                board.move( x, player1 );
+                board.move( y, player2 );
+                final int move = book.getBestMove( board, player1 );
+                assertTrue( board.hasSpaceInColumn( move ) );
+
+                final AlphaBetaSearch search = new AlphaBetaSearch( board, player1, player2 );
+                search.getNextMove( 2 );
+                assertEquals( search.bestScore(), book.getScore( board, player1 ).getAsInt() );
+
+                // mirrored position
+                board.clear();
+                board.move( board.width - 1 - x, player1 );
+                board.move( board.width - 1 - y, player2 );
+                if ( x != board.width - 1 - x || y != board.width - 1 - y ) {
+                    assertEquals( board.width - 1 - move, book.getBestMove( board, player1 ) );
+                }
+
+                // same position, but player2 moved first
+                board.clear();
+                board.move( x, player2 );
+                board.move( y, player1 );
+                assertEquals( move, book.getBestMove( board, player2 ) );
+            }
+        }
+
+        // too deep
+        board.move( 0, player1 );
+        assertEquals( -1, book.getBestMove( board, player2 ) );
+        assertFalse( book.getScore( board, player2 ).isPresent() );
+
+        // different board size
+        assertEquals( -1, book.getBestMove( new Board( 7, 6 ), player1 ) );
+    }
+
+    public void testRejectsInvalidFile() throws IOException {
+
+        Files.write( file, new byte[] { 1, 2, 3, 4 } );
+        try {
+            OpeningBook.open( file );
+            fail( "Should have failed" );
+        } catch(IllegalArgumentException e) {
+            // ok
+        }
+    }
+}
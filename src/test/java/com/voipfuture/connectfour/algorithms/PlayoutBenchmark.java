@@ -0,0 +1,86 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+
+import java.awt.Color;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Measures how many random games per second {@link PlayoutEngine} plays on an empty board, compared to playing them
+ * on a {@link Board}, and how many bytes both allocate per game.
+ *
+ * Not a unit test, run it manually using <code>PlayoutBenchmark [width] [height] [winLength] [seconds]</code>.
+ */
+public class PlayoutBenchmark
+{
+    public static void main(String[] args)
+    {
+        final int width = args.length > 0 ? Integer.parseInt( args[0] ) : 7;
+        final int height = args.length > 1 ? Integer.parseInt( args[1] ) : 6;
+        final int winLength = args.length > 2 ? Integer.parseInt( args[2] ) : 4;
+        final int seconds = args.length > 3 ? Integer.parseInt( args[3] ) : 5;
+
+        final Player player1 = new Player( "1", true, Color.RED );
+        final Player player2 = new Player( "2", true, Color.BLUE );
+        final Board board = new Board( width, height, winLength );
+        board.setPlayers( player1, player2 );
+
+        System.out.println( "Random games on an empty "+width+"x"+height+" board, "+winLength+" in a row to win" );
+        final PlayoutEngine engine = new PlayoutEngine( board, System.nanoTime() );
+        final long key = board.positionKey( player1 );
+        measure( "PlayoutEngine", seconds, () -> engine.playout( key ) );
+
+        final Random random = new Random();
+        final int[] columns = new int[ board.width ];
+        measure( "Board", seconds, () -> {
+            Player current = player1;
+            int moves = 0;
+            for ( int count = board.playableColumns( columns ) ; count > 0 ; count = board.playableColumns( columns ) )
+            {
+                final int x = columns[ random.nextInt( count ) ];
+                moves++;
+                if ( board.isWinningTile( x, board.makeMove( x, current ) ) ) {
+                    break;
+                }
+                current = current == player1 ? player2 : player1;
+            }
+            for ( ; moves > 0 ; moves-- ) {
+                board.undoMove();
+            }
+        } );
+    }
+
+    private static void measure(String name, int seconds, Runnable playout)
+    {
+        // warm-up
+        for ( int i = 0 ; i < 100_000 ; i++ ) {
+            playout.run();
+        }
+        final long allocatedBefore = allocatedBytes();
+        final long start = System.nanoTime();
+        final long end = start + seconds * 1_000_000_000L;
+        long games = 0;
+        do
+        {
+            for ( int i = 0 ; i < 1000 ; i++ ) {
+                playout.run();
+            }
+            games += 1000;
+        } while ( System.nanoTime() < end );
+        final double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000d;
+        final long allocated = allocatedBytes() - allocatedBefore;
+        System.out.println( String.format( "%-14s %,12.0f playouts/s, %.2f bytes allocated per playout",
+                                           name, games / elapsedSeconds, allocated / (double) games ) );
+    }
+
+    private static long allocatedBytes()
+    {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if ( bean instanceof com.sun.management.ThreadMXBean ) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+}
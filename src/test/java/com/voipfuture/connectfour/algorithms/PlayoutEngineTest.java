@@ -0,0 +1,98 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+
+import java.awt.Color;
+import java.util.Random;
+
+public class PlayoutEngineTest extends AbstractTestHelper
+{
+    private static final int PLAYOUTS = 20000;
+
+    @Override
+    protected Player createPlayer1() {
+        return new Player("1",true, Color.RED);
+    }
+
+    @Override
+    protected Player createPlayer2() {
+        return new Player("2",true,Color.BLUE);
+    }
+
+    public void testLastMove() {
+
+        // only the top left cell is free, it completes a line for player 1 but not for player 2
+        final Board board = new Board( 4, 4 );
+        final Player[][] columns = {
+            { player1, player1, player1 },
+            { player2, player2, player1, player2 },
+            { player2, player1, player2, player1 },
+            { player1, player2, player2, player2 } };
+        for ( int x = 0 ; x < columns.length ; x++ ) {
+            for ( Player player : columns[x] ) {
+                board.move( x, player );
+            }
+        }
+        assertFalse( board.isGameOver() );
+
+        final PlayoutEngine engine = new PlayoutEngine( board, 4711 );
+        assertEquals( PlayoutEngine.WIN, engine.playout( board.positionKey( player1 ) ) );
+        assertEquals( PlayoutEngine.DRAW, engine.playout( board.positionKey( player2 ) ) );
+    }
+
+    public void testSameResultsAsBoard() {
+
+        final Board board = new Board( 7, 6 );
+        board.move( 3, player1 );
+        board.move( 3, player2 );
+        board.move( 2, player1 );
+        assertSameResults( board, player2, player1 );
+    }
+
+    public void testSameResultsAsBoardWithOtherGeometry() {
+
+        final Board board = new Board( 5, 4, 3 );
+        board.move( 0, player1 );
+        assertSameResults( board, player2, player1 );
+    }
+
+    /**
+     * compares the fraction of won and drawn playouts with random games played on the board
+     */
+    private static void assertSameResults(Board board, Player toMove, Player opponent)
+    {
+        final int[] engineResults = new int[3];
+        final PlayoutEngine engine = new PlayoutEngine( board, 4711 );
+        final long key = board.positionKey( toMove );
+        for ( int i = 0 ; i < PLAYOUTS ; i++ ) {
+            engineResults[ engine.playout( key ) ]++;
+        }
+
+        final int[] boardResults = new int[3];
+        final Random random = new Random( 4711 );
+        final int[] columns = new int[ board.width ];
+        for ( int i = 0 ; i < PLAYOUTS ; i++ )
+        {
+            final Board copy = board.createCopy();
+            Player current = toMove;
+            int result = PlayoutEngine.DRAW;
+            for ( int count = copy.playableColumns( columns ) ; count > 0 ; count = copy.playableColumns( columns ) )
+            {
+                final int x = columns[ random.nextInt( count ) ];
+                if ( copy.isWinningTile( x, copy.makeMove( x, current ) ) ) {
+                    result = current == toMove ? PlayoutEngine.WIN : PlayoutEngine.LOSS;
+                    break;
+                }
+                current = current == toMove ? opponent : toMove;
+            }
+            boardResults[ result ]++;
+        }
+
+        for ( int result = PlayoutEngine.LOSS ; result <= PlayoutEngine.WIN ; result++ ) {
+            final double difference = Math.abs( engineResults[result] - boardResults[result] ) / (double) PLAYOUTS;
+            assertTrue( "Result "+result+": "+engineResults[result]+" vs "+boardResults[result], difference < 0.02 );
+        }
+    }
+}
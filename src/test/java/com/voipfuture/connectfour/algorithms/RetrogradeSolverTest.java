@@ -0,0 +1,178 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.GameState;
+import com.voipfuture.connectfour.IInputProvider;
+import com.voipfuture.connectfour.Player;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class RetrogradeSolverTest extends AbstractTestHelper
+{
+    private Path file;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        file = Files.createTempFile( "database", ".bin" );
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        Files.deleteIfExists( file );
+        super.tearDown();
+    }
+
+    public void testFourByFourIsDraw() throws IOException {
+        assertEquals( RetrogradeDatabase.DRAW, new RetrogradeSolver( 4, 4, 4 ).solve( file, 2 ) );
+    }
+
+    public void testSameValuesAsFullSearch() throws IOException {
+
+        new RetrogradeSolver( 4, 4, 3 ).solve( file, 2 );
+        final RetrogradeDatabase database = RetrogradeDatabase.open( file );
+        final Map<Long,Integer> cache = new HashMap<>();
+        final Random rnd = new Random( 99 );
+        for ( int i = 0 ; i < 300 ; i++ )
+        {
+            final Board board = new Board( 4, 4, 3 );
+            state = new GameState( board, player1, player2 );
+            assertTrue( database.supports( board ) );
+            for ( int moves = rnd.nextInt( 12 ) ; moves > 0 ; moves-- )
+            {
+                final int[] columns = new int[ board.width ];
+                final int x = columns[ rnd.nextInt( board.playableColumns( columns ) ) ];
+                final int y = board.makeMove( x, state.currentPlayer() );
+                if ( board.isWinningTile( x, y ) || board.isFull() ) {
+                    board.undoMove();
+                    break;
+                }
+                state.advanceToNextPlayer();
+            }
+            assertEquals( "Position:\n"+board, solve( board, state.currentPlayer(), state.nextPlayer(), cache ),
+                          database.value( board, state.currentPlayer() ) );
+        }
+        assertFalse( database.supports( new Board( 4, 4 ) ) );
+    }
+
+    public void testIndexIsCompact() {
+
+        final PositionIndex index = new PositionIndex( 4, 4 );
+        assertEquals( 201755, index.count() );
+        final boolean[] used = new boolean[ (int) index.count() ];
+        int positions = 0;
+        // every combination of column fillings, 5 bits per column
+        for ( long key = 0 ; key < 1L << 20 ; key++ )
+        {
+            boolean valid = true;
+            int tiles = 0;
+            int own = 0;
+            for ( int x = 0 ; x < 4 ; x++ )
+            {
+                final long column = ( key >>> (x*5) ) & 31;
+                valid &= column != 0;
+                final int height = 63 - Long.numberOfLeadingZeros( column );
+                tiles += Math.max( height, 0 );
+                own += Long.bitCount( column ) - 1;
+            }
+            valid &= own == tiles / 2;
+            final long i = index.index( key );
+            if ( ! valid ) {
+                assertEquals( -1, i );
+                continue;
+            }
+            assertTrue( i >= 0 && i < index.count() );
+            assertFalse( "Index "+i+" used twice", used[ (int) i ] );
+            used[ (int) i ] = true;
+            positions++;
+        }
+        assertEquals( index.count(), positions );
+
+        // a 7x6 database would not fit into a memory-mapped file
+        assertTrue( new PositionIndex( 7, 6 ).count() > RetrogradeDatabase.MAX_POSITIONS );
+        try {
+            new RetrogradeSolver( 6, 5, 4 );
+            fail( "Should have failed" );
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public void testDatabasePlayerWinsWonPosition() throws IOException {
+
+        new RetrogradeSolver( 4, 4, 3 ).solve( file, 1 );
+        final RetrogradeDatabase database = RetrogradeDatabase.open( file );
+        final Board board = new Board( 4, 4, 3 );
+        state = new GameState( board, player1, player2 );
+        assertEquals( RetrogradeDatabase.WIN, database.value( board, player1 ) );
+
+        // the database player against a random player, the database player moves first and must win
+        final Random rnd = new Random( 7 );
+        System.setProperty( RetrogradeDatabase.DATABASE_PROPERTY, file.toString() );
+        try
+        {
+            final Player winner = playGame( new DatabasePlayer(), rnd );
+            if ( RetrogradeDatabase.getDefault().isPresent() ) {
+                assertEquals( player1, winner );
+            }
+        } finally {
+            System.clearProperty( RetrogradeDatabase.DATABASE_PROPERTY );
+        }
+    }
+
+    private Player playGame(IInputProvider provider,Random rnd)
+    {
+        while ( true )
+        {
+            final int x;
+            if ( state.currentPlayer() == player1 ) {
+                x = ((IInputProvider.MoveEvent) provider.readInput( state ).get()).column;
+            } else {
+                final int[] columns = new int[ state.board.width ];
+                x = columns[ rnd.nextInt( state.board.playableColumns( columns ) ) ];
+            }
+            final Board.MoveResult result = state.board.moveAndCheck( x, state.currentPlayer() );
+            if ( result.isGameOver() ) {
+                return result.isWin ? result.player : null;
+            }
+            state.advanceToNextPlayer();
+        }
+    }
+
+    private static int solve(Board board,Player player,Player opponent,Map<Long,Integer> cache)
+    {
+        final long key = board.positionKey( player );
+        final Integer cached = cache.get( key );
+        if ( cached != null ) {
+            return cached;
+        }
+        int best = RetrogradeDatabase.LOSS;
+        for ( int x = 0 ; x < board.width && best != RetrogradeDatabase.WIN ; x++ )
+        {
+            if ( ! board.hasSpaceInColumn( x ) ) {
+                continue;
+            }
+            final int y = board.makeMove( x, player );
+            final int value;
+            if ( board.isWinningTile( x, y ) ) {
+                value = RetrogradeDatabase.WIN;
+            } else if ( board.isFull() ) {
+                value = RetrogradeDatabase.DRAW;
+            } else {
+                value = RetrogradeDatabase.WIN + RetrogradeDatabase.LOSS - solve( board, opponent, player, cache );
+            }
+            board.undoMove();
+            best = Math.max( best, value );
+        }
+        cache.put( key, best );
+        return best;
+    }
+}
@@ -0,0 +1,155 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.Player;
+
+import java.awt.Color;
+import java.util.Random;
+
+public class TacticsTest extends AbstractTestHelper
+{
+    @Override
+    protected Player createPlayer1() {
+        return new Player("1",true, Color.RED);
+    }
+
+    @Override
+    protected Player createPlayer2() {
+        return new Player("2",true,Color.BLUE);
+    }
+
+    public void testWinningCells() {
+        assertWinningCells( 7, 6, 4 );
+        assertWinningCells( 5, 4, 3 );
+        assertWinningCells( 8, 7, 5 );
+    }
+
+    public void testImmediateWin() {
+
+        final Board board = new Board( 7, 6 );
+        board.move( 1, player1 );
+        board.move( 1, player2 );
+        board.move( 2, player1 );
+        board.move( 2, player2 );
+        board.move( 3, player1 );
+        board.move( 3, player2 );
+        final Tactics tactics = new Tactics( board );
+        assertEquals( Tactics.WINNING | 1L << 0 | 1L << 4, tactics.columnsToSearch( board, player1, player2 ) );
+        // player 2 can't block both cells
+        assertEquals( 0, tactics.columnsToSearch( board, player2, player1 ) );
+    }
+
+    public void testForcedBlock() {
+
+        final Board board = new Board( 7, 6 );
+        board.move( 0, player1 );
+        board.move( 6, player2 );
+        board.move( 1, player1 );
+        board.move( 6, player2 );
+        board.move( 2, player1 );
+        final Tactics tactics = new Tactics( board );
+        assertEquals( 1L << 3, tactics.columnsToSearch( board, player2, player1 ) );
+    }
+
+    public void testNotBelowThreat() {
+
+        // player 1 threatens to complete the second row in column 3
+        final Board board = new Board( 7, 6 );
+        board.move( 0, player2 );
+        board.move( 0, player1 );
+        board.move( 1, player1 );
+        board.move( 1, player1 );
+        board.move( 2, player2 );
+        board.move( 2, player1 );
+        board.move( 4, player1 );
+        final Tactics tactics = new Tactics( board );
+        assertEquals( 0b1110111L, tactics.columnsToSearch( board, player2, player1 ) );
+    }
+
+    public void testSearchAnswersWinWithoutSearching() {
+
+        final Board board = new Board( 7, 6 );
+        board.move( 0, player1 );
+        board.move( 6, player2 );
+        board.move( 1, player1 );
+        board.move( 6, player2 );
+        board.move( 2, player1 );
+        board.move( 5, player2 );
+        final AlphaBetaSearch search = new AlphaBetaSearch( board, player1, player2 );
+        search.setTactics( true );
+        assertEquals( 3, search.getNextMove( 7 ) );
+        assertEquals( 1, search.nodeCount() );
+
+        final AlphaBetaSearch iterative = new AlphaBetaSearch( board, player1, player2 );
+        iterative.setTactics( true );
+        assertEquals( 3, iterative.getNextMoveWithin( 10_000 ) );
+        assertEquals( 1, iterative.completedDepth() );
+    }
+
+    public void testSearchFindsBlock() {
+
+        final Board board = new Board( 7, 6 );
+        board.move( 0, player1 );
+        board.move( 6, player2 );
+        board.move( 1, player1 );
+        board.move( 6, player2 );
+        board.move( 2, player1 );
+        final AlphaBetaSearch search = new AlphaBetaSearch( board, player2, player1 );
+        search.setTactics( true );
+        assertEquals( 3, search.getNextMove( 7 ) );
+
+        final AlphaBetaSearch withoutTactics = new AlphaBetaSearch( board, player2, player1 );
+        assertEquals( 3, withoutTactics.getNextMove( 7 ) );
+        assertTrue( search.nodeCount() < withoutTactics.nodeCount() );
+    }
+
+    /**
+     * compares the winning cells of both players with the cells that complete a line on the board, in random positions
+     */
+    private void assertWinningCells(int width, int height, int winLength)
+    {
+        final Random random = new Random( 4711 );
+        final int[] columns = new int[ width ];
+        for ( int game = 0 ; game < 50 ; game++ )
+        {
+            final Board board = new Board( width, height, winLength );
+            board.setPlayers( player1, player2 );
+            final Tactics tactics = new Tactics( board );
+            Player current = player1;
+            for ( int count = board.playableColumns( columns ) ; count > 0 ; count = board.playableColumns( columns ) )
+            {
+                final long key = board.positionKey( player1 );
+                final long mask = key ^ board.positionKey( player2 );
+                assertEquals( board.toString(), winningCells( board, player1 ), tactics.winningCells( key & mask, mask ) );
+                assertEquals( board.toString(), winningCells( board, player2 ), tactics.winningCells( mask & ~key, mask ) );
+
+                final int x = columns[ random.nextInt( count ) ];
+                if ( board.isWinningTile( x, board.makeMove( x, current ) ) ) {
+                    break;
+                }
+                current = current == player1 ? player2 : player1;
+            }
+        }
+    }
+
+    private static long winningCells(Board board, Player player)
+    {
+        long result = 0;
+        for ( int x = 0 ; x < board.width ; x++ )
+        {
+            for ( int y = 0 ; y < board.height ; y++ )
+            {
+                if ( board.getCode( x, y ) == Board.EMPTY )
+                {
+                    board.set( x, y, player );
+                    if ( board.isWinningTile( x, y ) ) {
+                        result |= 1L << ( x * (board.height + 1) + board.height - 1 - y );
+                    }
+                    board.clear( x, y );
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package com.voipfuture.connectfour.algorithms;
+
+import com.voipfuture.connectfour.AbstractTestHelper;
+import com.voipfuture.connectfour.Board;
+import com.voipfuture.connectfour.BoardGeometry;
+import com.voipfuture.connectfour.Player;
+
+import java.awt.Color;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class ThreatEvaluatorTest extends AbstractTestHelper
+{
+    @Override
+    protected Player createPlayer1() {
+        return new Player("1",true, Color.RED);
+    }
+
+    @Override
+    protected Player createPlayer2() {
+        return new Player("2",true,Color.BLUE);
+    }
+
+    public void testSameScoresAsWindowByWindow() {
+        assertSameScores( 7, 6, 4 );
+        assertSameScores( 5, 4, 3 );
+        assertSameScores( 4, 9, 4 );
+        assertSameScores( 8, 7, 5 );
+    }
+
+    public void testScore() {
+
+        final Board board = new Board( 7, 6 );
+        board.move( 0, player1 );
+        board.move( 0, player2 );
+        board.move( 1, player1 );
+        board.move( 1, player2 );
+        board.move( 2, player1 );
+        final ThreatEvaluator evaluator = new ThreatEvaluator( board );
+        // player 1 threatens to complete the bottom row in column 3
+        assertTrue( evaluator.getScore( board, player1 ) > 0 );
+        assertEquals( -evaluator.getScore( board, player1 ), evaluator.getScore( board, player2 ) );
+
+        board.move( 3, player1 );
+        assertEquals( Heuristic.WIN_SCORE, evaluator.getScore( board, player1 ) );
+    }
+
+    public void testSearchWithThreatEvaluation() {
+
+        final Board board = new Board( 7, 6 );
+        board.move( 0, player1 );
+        board.move( 0, player2 );
+        board.move( 1, player1 );
+        board.move( 6, player2 );
+        board.move( 2, player1 );
+        player2.setUsingThreatEvaluation( true );
+        final Evaluator evaluator = Evaluator.of( player2, board );
+        assertTrue( evaluator instanceof ThreatEvaluator );
+        final HeuristicPlayer.GamePrediction prediction = new HeuristicPlayer.GamePrediction( player2, player1, 2, null, evaluator );
+        assertEquals( 3, prediction.getNextMove( board ).column );
+        assertTrue( prediction.statistics.evaluations > 0 );
+    }
+
+    public void testOnlyOnePlayerOnBoard() {
+
+        final Board board = new Board( 7, 6 );
+        board.move( 3, player1 );
+        board.move( 3, player1 );
+        final long own = board.positionKey( player1 ) & ~board.positionKey( player2 );
+        final ThreatEvaluator evaluator = new ThreatEvaluator( board );
+        assertEquals( evaluator.getScore( own, 0 ), evaluator.getScore( board, player1 ) );
+        assertEquals( 0, evaluator.getScore( board, player2 ) );
+    }
+
+    /**
+     * plays random games and compares the scores with scores computed by looking at one window after the other
+     */
+    private void assertSameScores(int width, int height, int winLength)
+    {
+        final Random random = new Random( 4711 );
+        final int[] columns = new int[ width ];
+        final ThreatEvaluator evaluator = new ThreatEvaluator( width, height, winLength );
+        for ( int game = 0 ; game < 50 ; game++ )
+        {
+            final Board board = new Board( width, height, winLength );
+            board.setPlayers( player1, player2 );
+            Player current = player1;
+            for ( int count = board.playableColumns( columns ) ; count > 0 ; count = board.playableColumns( columns ) )
+            {
+                final int x = columns[ random.nextInt( count ) ];
+                final boolean isWin = board.isWinningTile( x, board.makeMove( x, current ) );
+                final int expected = isWin ? Heuristic.WIN_SCORE :
+                        board.isFull() ? Heuristic.DRAW_SCORE : windowScore( board, board.codeOf( current ) ) - windowScore( board, 3 - board.codeOf( current ) );
+                assertEquals( board.toString(), expected, evaluator.getScore( board, current ) );
+                if ( isWin ) {
+                    break;
+                }
+                current = current == player1 ? player2 : player1;
+            }
+        }
+    }
+
+    private static int windowScore(Board board, int code)
+    {
+        final BoardGeometry geometry = board.geometry;
+        final Set<Integer> threats = new HashSet<>();
+        int score = 0;
+        // all runs of winLength cells in a line
+        for ( int line = 0 ; line < geometry.lineCount ; line++ )
+        {
+            for ( int start = geometry.lineStarts[ line ] ; start + board.winLength <= geometry.lineStarts[ line + 1 ] ; start++ )
+            {
+                int own = 0;
+                int empty = 0;
+                int emptyCell = -1;
+                for ( int i = 0 ; i < board.winLength ; i++ )
+                {
+                    final int cell = geometry.lineCells[ start + i ];
+                    if ( board.getCode( cell ) == code ) {
+                        own++;
+                    } else if ( board.getCode( cell ) == Board.EMPTY ) {
+                        empty++;
+                        emptyCell = cell;
+                    }
+                }
+                if ( own + empty == board.winLength )
+                {
+                    if ( empty == 1 ) {
+                        score += ThreatEvaluator.ONE_SHORT_SCORE;
+                        threats.add( emptyCell );
+                    } else if ( empty == 2 ) {
+                        score += ThreatEvaluator.TWO_SHORT_SCORE;
+                    }
+                }
+            }
+        }
+        return score + threats.size() * ThreatEvaluator.THREAT_SCORE;
+    }
+}
@@ -0,0 +1,52 @@
+package com.voipfuture.connectfour.algorithms;
+
+import junit.framework.TestCase;
+
+public class TranspositionTableTest extends TestCase
+{
+    public void testStoreAndProbe() {
+
+        final TranspositionTable table = new TranspositionTable( 1 );
+        assertEquals( 65536, table.capacity() );
+        assertEquals( TranspositionTable.NO_ENTRY, table.probe( 12345 ) );
+
+        table.store( 12345, 7, TranspositionTable.LOWER_BOUND, -4711, 3 );
+        final long entry = table.probe( 12345 );
+        assertTrue( entry != TranspositionTable.NO_ENTRY );
+        assertEquals( 7, TranspositionTable.depth( entry ) );
+        assertEquals( TranspositionTable.LOWER_BOUND, TranspositionTable.bound( entry ) );
+        assertEquals( -4711, TranspositionTable.score( entry ) );
+        assertEquals( 3, TranspositionTable.move( entry ) );
+
+        table.store( 54321, 1, TranspositionTable.EXACT, 1000000, -1 );
+        assertEquals( -1, TranspositionTable.move( table.probe( 54321 ) ) );
+        assertEquals( 1000000, TranspositionTable.score( table.probe( 54321 ) ) );
+
+        assertEquals( 4, table.probes() );
+        assertEquals( 3, table.hits() );
+        assertEquals( 2 / 65536d, table.fillRate(), 1e-9 );
+    }
+
+    public void testReplacement() {
+
+        final TranspositionTable table = new TranspositionTable( 1 );
+        final long key1 = 42;
+        final long key2 = 42 + table.capacity(); // same slot
+
+        table.store( key1, 5, TranspositionTable.EXACT, 1, 1 );
+        table.store( key2, 4, TranspositionTable.EXACT, 2, 2 );
+        // deeper entry from the current search is kept
+        assertEquals( 1, TranspositionTable.score( table.probe( key1 ) ) );
+        assertEquals( TranspositionTable.NO_ENTRY, table.probe( key2 ) );
+        assertEquals( 1, table.collisions() );
+
+        table.newSearch();
+        table.store( key2, 4, TranspositionTable.EXACT, 2, 2 );
+        assertEquals( 2, TranspositionTable.score( table.probe( key2 ) ) );
+        assertEquals( TranspositionTable.NO_ENTRY, table.probe( key1 ) );
+
+        table.clear();
+        assertEquals( TranspositionTable.NO_ENTRY, table.probe( key2 ) );
+        assertEquals( 0d, table.fillRate(), 0d );
+    }
+}
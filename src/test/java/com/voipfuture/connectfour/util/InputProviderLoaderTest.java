@@ -0,0 +1,32 @@
+package com.voipfuture.connectfour.util;
+
+import com.voipfuture.connectfour.IInputProvider;
+import com.voipfuture.connectfour.Player;
+import junit.framework.TestCase;
+
+import java.awt.Color;
+
+public class InputProviderLoaderTest extends TestCase
+{
+    public void testInstancesAreKeptPerPlayerAndAlgorithm() {
+
+        final Player player1 = new Player( "1", true, Color.RED ).setAlgorithm( "com.voipfuture.connectfour.algorithms.AlphaBetaPlayer" );
+        final Player player2 = new Player( "2", true, Color.BLUE ).setAlgorithm( "com.voipfuture.connectfour.algorithms.AlphaBetaPlayer" );
+
+        final IInputProvider provider1 = InputProviderLoader.getInputProvider( player1 );
+        assertSame( provider1, InputProviderLoader.getInputProvider( player1 ) );
+        assertNotSame( provider1, InputProviderLoader.getInputProvider( player2 ) );
+
+        player1.setAlgorithm( "com.voipfuture.connectfour.algorithms.HeuristicPlayer" );
+        final IInputProvider provider2 = InputProviderLoader.getInputProvider( player1 );
+        assertEquals( "com.voipfuture.connectfour.algorithms.HeuristicPlayer", provider2.getClass().getName() );
+
+        // switching back creates a new instance, the old one has been closed
+        player1.setAlgorithm( "com.voipfuture.connectfour.algorithms.AlphaBetaPlayer" );
+        final IInputProvider provider3 = InputProviderLoader.getInputProvider( player1 );
+        assertNotSame( provider1, provider3 );
+
+        InputProviderLoader.reloadAlgorithms();
+        assertNotSame( provider3, InputProviderLoader.getInputProvider( player1 ) );
+    }
+}